@@ -0,0 +1,18 @@
+package pokemon;
+
+/**
+ * Is told when a Pokemon faints or gets back on its feet, that is when its HP drops to 0 or below
+ * or rises above 0 again. Changes of HP that do not cross 0 are not reported.
+ * <p>
+ * The listener is called on the thread that changed the HP, right after the change.
+ */
+public interface AliveListener {
+
+    /**
+     * Called when the Pokemon fainted or got back on its feet.
+     *
+     * @param pokemon the Pokemon whose HP crossed 0
+     * @param alive   true if the Pokemon has HP above 0 now
+     */
+    void aliveChanged(Pokemon pokemon, boolean alive);
+}
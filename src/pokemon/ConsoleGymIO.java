@@ -0,0 +1,29 @@
+package pokemon;
+
+import pokemon.event.BattleEventSink;
+import pokemon.event.ConsoleEventSink;
+
+import java.util.Scanner;
+
+/**
+ * Plays a gym on the command line, reading from {@link System#in} and printing to {@link System#out}.
+ */
+public class ConsoleGymIO implements GymIO {
+    // one scanner for the whole gym, a scanner per question can swallow input that was typed ahead
+    private final Scanner input = new Scanner(System.in);
+
+    @Override
+    public String readLine() {
+        return input.hasNextLine() ? input.nextLine() : null;
+    }
+
+    @Override
+    public void println(String line) {
+        System.out.println(line);
+    }
+
+    @Override
+    public BattleEventSink getEvents() {
+        return ConsoleEventSink.ALL;
+    }
+}
@@ -0,0 +1,31 @@
+package pokemon;
+
+import pokemon.event.BattleEventSink;
+
+/**
+ * The channel a gym talks to its player through: lines of text in, lines of text out.
+ * The console is one such channel, a network connection is another.
+ */
+public interface GymIO {
+
+    /**
+     * Waits for the player's next line of input.
+     *
+     * @return the line without its line ending, or null when the player has gone
+     */
+    String readLine();
+
+    /**
+     * Shows a line of text to the player.
+     *
+     * @param line the text to show
+     */
+    void println(String line);
+
+    /**
+     * Returns the sink the player's and the gym's Pokemon report their attacks and damage to during a session.
+     *
+     * @return the event sink of this channel
+     */
+    BattleEventSink getEvents();
+}
@@ -0,0 +1,13 @@
+package pokemon;
+
+/**
+ * Thrown by the gym when the player's input ends in the middle of a question,
+ * for example because the player closed the connection.
+ */
+public class GymSessionClosedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public GymSessionClosedException() {
+        super("The player left the gym");
+    }
+}
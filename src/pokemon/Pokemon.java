@@ -1,16 +1,50 @@
 package pokemon;
 
-import java.util.ArrayList;
+import pokemon.event.BattleEventSink;
+import pokemon.event.ConsoleEventSink;
+import pokemon.event.EventLevel;
+import pokemon.types.MoveRegistry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * A Pokemon with HP, a type and a resource that powers its attacks.
+ * <p>
+ * HP and the resource level may be changed by several threads at once, for example when many challengers attack
+ * the same Pokemon in a {@link pokemon.battle.RaidBattle}. Every change is a single atomic update without a lock,
+ * so no damage or healing is lost and exactly one hit sees the Pokemon faint.
+ * <p>
+ * What a Pokemon has in common with others of its kind, its type, food, sound and attacks, is kept in a shared
+ * {@link Species}, so each Pokemon only holds its own state.
+ */
 public abstract class Pokemon {
+    private static final AliveListener[] NO_LISTENERS = new AliveListener[0];
+    private static final VarHandle HP;
+    private static final VarHandle RESOURCE_LEVEL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HP = lookup.findVarHandle(Pokemon.class, "hp", int.class);
+            RESOURCE_LEVEL = lookup.findVarHandle(Pokemon.class, "resourceLevel", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String name;
     private int level;
-    private int hp;
-    private final List<String> attacks = new ArrayList<String>();
-    private String type;
-    private String food;
-    private String sound;
+    private volatile int hp;
+    private volatile int resourceLevel;
+    private Species species;
+    private RandomGenerator random;
+    private BattleEventSink events = ConsoleEventSink.ALL;
+    private volatile AliveListener[] aliveListeners = NO_LISTENERS;
 
     /**
      * Constructs a Pokemon with the given name, level, HP, food, and sound.
@@ -22,20 +56,31 @@ public abstract class Pokemon {
      * @param sound the sound the Pokemon makes
      */
     public Pokemon(String name, int level, int hp, String food, String sound) {
+        this(new Species(null, food, sound, List.of()), name, level, hp);
+    }
+
+    /**
+     * Constructs a Pokemon of the given species.
+     *
+     * @param species the species, shared with the other Pokemon of its kind
+     * @param name    the name of the Pokemon
+     * @param level   the level of the Pokemon
+     * @param hp      the HP of the Pokemon
+     */
+    protected Pokemon(Species species, String name, int level, int hp) {
+        this.species = species;
         this.name = name;
         this.level = level;
         this.hp = hp;
-        this.food = food;
-        this.sound = sound;
     }
 
     /**
-     * Adds an attack to the Pokemon's list of attacks.
+     * Adds an attack to the Pokemon's list of attacks. The Pokemon gets a species of its own.
      *
      * @param attack the attack to add
      */
     public void addAttack(String attack) {
-        attacks.add(attack);
+        species = species.withAttack(attack);
     }
 
     // Getters and Setters
@@ -68,50 +113,201 @@ public abstract class Pokemon {
      * @param hp the HP to set
      */
     public void setHp(int hp) {
-        this.hp = hp;
+        int before = (int) HP.getAndSet(this, hp);
+        hpChanged(before, hp);
+    }
+
+    /**
+     * Adds the given amount to the HP of the Pokemon in one atomic step.
+     *
+     * @param amount the HP to add, negative to take HP away
+     * @return the HP after the change
+     */
+    protected int addHp(int amount) {
+        int before = (int) HP.getAndAdd(this, amount);
+        hpChanged(before, before + amount);
+        return before + amount;
+    }
+
+    /**
+     * Registers a listener that is told when this Pokemon faints or gets back on its feet.
+     * Copies of this Pokemon do not inherit its listeners.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addAliveListener(AliveListener listener) {
+        AliveListener[] listeners = Arrays.copyOf(aliveListeners, aliveListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        aliveListeners = listeners;
+    }
+
+    /**
+     * Removes a listener added with {@link #addAliveListener(AliveListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void removeAliveListener(AliveListener listener) {
+        AliveListener[] listeners = aliveListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                AliveListener[] remaining = new AliveListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                aliveListeners = listeners.length == 1 ? NO_LISTENERS : remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tells the listeners when a change of HP made this Pokemon faint or got it back on its feet.
+     */
+    private void hpChanged(int before, int after) {
+        if ((before > 0) != (after > 0)) {
+            for (AliveListener listener : aliveListeners) {
+                listener.aliveChanged(this, after > 0);
+            }
+        }
+    }
+
+    public Species getSpecies() {
+        return species;
     }
 
+    /**
+     * Sets the species of the Pokemon, which decides its type, food, sound and attacks.
+     *
+     * @param species the species to set
+     */
+    protected void setSpecies(Species species) {
+        this.species = species;
+    }
+
+    /**
+     * Returns the attacks of the Pokemon, which it shares with its species.
+     *
+     * @return an unmodifiable list of attack names
+     */
     public List<String> getAttacks() {
-        return attacks;
+        return species.getAttacks();
     }
 
     public String getType() {
-        return type;
+        PokemonType type = species.getType();
+        return type == null ? null : type.getDisplayName();
+    }
+
+    public PokemonType getPokemonType() {
+        return species.getType();
+    }
+
+    /**
+     * Returns the ordinal of the Pokemon's type, for looking up type multipliers with
+     * {@link PokemonType#effectiveness(int, int)}.
+     *
+     * @return the ordinal of the type, or -1 if no type has been set
+     */
+    public int getTypeOrdinal() {
+        return species.getTypeOrdinal();
     }
 
     /**
      * Sets the type of the Pokemon.
      *
-     * @param type the type to set
+     * @param type the name of the type to set, case is ignored
      */
     public void setType(String type) {
-        this.type = type;
+        setType(PokemonType.fromName(type));
+    }
+
+    /**
+     * Sets the type of the Pokemon.
+     *
+     * @param type the type to set
+     */
+    public void setType(PokemonType type) {
+        species = species.withType(type);
     }
 
     public String getFood() {
-        return food;
+        return species.getFood();
     }
 
     /**
-     * Sets the food of the Pokemon.
+     * Sets the food of the Pokemon. A food other than the one of its species gives the Pokemon a species of its own.
      *
      * @param food the food to set
      */
     public void setFood(String food) {
-        this.food = food;
+        species = species.withFood(food);
     }
 
     public String getSound() {
-        return sound;
+        return species.getSound();
     }
 
     /**
-     * Sets the sound of the Pokemon.
+     * Sets the sound of the Pokemon. A sound other than the one of its species gives the Pokemon a species of its own.
      *
      * @param sound the sound to set
      */
     public void setSound(String sound) {
-        this.sound = sound;
+        species = species.withSound(sound);
+    }
+
+    /**
+     * Returns the random generator used for this Pokemon's damage rolls.
+     * Without one set, the generator of the current thread is used.
+     *
+     * @return the random generator in use
+     */
+    public RandomGenerator getRandom() {
+        return random != null ? random : ThreadLocalRandom.current();
+    }
+
+    /**
+     * Sets the random generator used for this Pokemon's damage rolls.
+     * A battle passes its own generator in here, so a seeded battle rolls the same damage every time.
+     * The generator is not shared with copies of this Pokemon.
+     *
+     * @param random the random generator to use, or null for the generator of the current thread
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    public BattleEventSink getEvents() {
+        return events;
+    }
+
+    /**
+     * Sets the sink that receives the messages of this Pokemon, such as its attacks and the damage it takes.
+     * Copies of this Pokemon start with the console sink again.
+     *
+     * @param events the sink to report to
+     */
+    public void setEvents(BattleEventSink events) {
+        this.events = events;
+    }
+
+    /**
+     * Tells whether a message of the given level would be delivered, so it only has to be built when it is.
+     *
+     * @param level the level of the message
+     * @return true if the sink of this Pokemon listens to the level
+     */
+    protected boolean isReporting(EventLevel level) {
+        return events.isEnabled(level);
+    }
+
+    /**
+     * Reports a message to the sink of this Pokemon. Call {@link #isReporting(EventLevel)} first.
+     *
+     * @param level   the level of the message
+     * @param message the message
+     */
+    protected void report(EventLevel level, String message) {
+        events.emit(level, message);
     }
 
     public String toString() {
@@ -120,8 +316,70 @@ public abstract class Pokemon {
 
     public abstract void eats();
 
+    /**
+     * Creates an independent copy of this Pokemon, including its HP, level, food, sound and type resource.
+     *
+     * @return a new Pokemon in the same state as this one
+     */
+    public abstract Pokemon copy();
+
+    /**
+     * Returns the level of the resource that powers this Pokemon's attacks,
+     * such as the temperature of a fire Pokemon or the hydration level of a water Pokemon.
+     *
+     * @return the current resource level
+     */
+    public int getResourceLevel() {
+        return resourceLevel;
+    }
+
+    /**
+     * Sets the level of the resource that powers this Pokemon's attacks, limited by {@link #limitResourceLevel(int)}.
+     *
+     * @param resourceLevel the resource level to set
+     */
+    public void setResourceLevel(int resourceLevel) {
+        this.resourceLevel = limitResourceLevel(resourceLevel);
+    }
+
+    /**
+     * Changes the level of the resource that powers this Pokemon's attacks in one atomic step,
+     * limited by {@link #limitResourceLevel(int)}.
+     *
+     * @param delta the amount to add, negative to use up resource
+     * @return the resource level after the change
+     */
+    public int changeResourceLevel(int delta) {
+        int current;
+        int next;
+        do {
+            current = resourceLevel;
+            next = limitResourceLevel(current + delta);
+        } while (!RESOURCE_LEVEL.weakCompareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Limits a new resource level. By default the level can not go above {@link #getMaxResourceLevel()}.
+     *
+     * @param resourceLevel the requested resource level
+     * @return the resource level to store
+     */
+    public int limitResourceLevel(int resourceLevel) {
+        return Math.min(resourceLevel, getMaxResourceLevel());
+    }
+
+    /**
+     * Returns the highest level the resource that powers this Pokemon's attacks can reach.
+     *
+     * @return the maximum resource level
+     */
+    public abstract int getMaxResourceLevel();
+
     public void speaks() {
-        System.out.println(getName() + " says " + getSound());
+        if (isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " says " + getSound());
+        }
     }
 
     /**
@@ -132,45 +390,67 @@ public abstract class Pokemon {
      * @param food the food to feed the Pokemon
      */
     public void feed(String food) {
-        System.out.println(getName() + " eats " + food);
+        boolean reporting = isReporting(EventLevel.INFO);
+        if (reporting) {
+            report(EventLevel.INFO, getName() + " eats " + food);
+        }
 
-        if (food.equals(type)) {
-            System.out.println("Yum! " + getName() + " wants more " + food);
-            setHp(getHp() + 20);
-        } else {
-            System.out.println("Yuck! " + getName() + " spits out " + food);
+        if (food.equals(getType())) {
+            if (reporting) {
+                report(EventLevel.INFO, "Yum! " + getName() + " wants more " + food);
+            }
+            addHp(20);
+        } else if (reporting) {
+            report(EventLevel.INFO, "Yuck! " + getName() + " spits out " + food);
         }
     }
 
     /**
-     * Levels up the Pokemon and fully heals it by increasing its HP by 10 until it reaches 100.
+     * Levels up the Pokemon and fully heals it by increasing its HP by 10 until it is above 100.
      */
     public void levelUp() {
-        System.out.println(getName() + " levels up!");
+        if (isReporting(EventLevel.IMPORTANT)) {
+            report(EventLevel.IMPORTANT, getName() + " levels up!");
+        }
         setLevel(getLevel() + 1);
-        var currentHp = getHp();
 
         // when a Pokemon levels up, he should be fully healed
-        while (currentHp <= 100) {
-            System.out.println(getName() + " is healing! HP: " + currentHp);
-            setHp(currentHp + 10);
-            currentHp = getHp();
+        int currentHp;
+        int healedHp;
+        do {
+            currentHp = hp;
+            healedHp = currentHp <= 100 ? currentHp + ((100 - currentHp) / 10 + 1) * 10 : currentHp;
+        } while (!HP.weakCompareAndSet(this, currentHp, healedHp));
+        hpChanged(currentHp, healedHp);
+
+        if (isReporting(EventLevel.DEBUG)) {
+            for (int step = currentHp; step < healedHp; step += 10) {
+                report(EventLevel.DEBUG, getName() + " is healing! HP: " + step);
+            }
         }
     }
 
     /**
      * Reduces the Pokemon's HP by the given damage amount.
      * If the Pokemon's HP is less than or equal to 0, it indicates that the Pokemon has fainted.
+     * When several threads hit the same Pokemon, only the hit that takes its HP from above 0 to 0 or below returns true.
      *
      * @param damage the amount of damage to reduce from the Pokemon's HP
+     * @return true if this hit made the Pokemon faint
      */
-    public void gotHit(int damage) {
-        hp -= damage;
-        if (hp <= 0) {
-            System.out.println(getName() + " fainted!");
-        } else {
-            System.out.println(getName() + " took " + damage + " damage! HP: " + hp);
+    public boolean gotHit(int damage) {
+        int before = (int) HP.getAndAdd(this, -damage);
+        int after = before - damage;
+        boolean fainted = before > 0 && after <= 0;
+        hpChanged(before, after);
+        if (fainted) {
+            if (isReporting(EventLevel.IMPORTANT)) {
+                report(EventLevel.IMPORTANT, getName() + " fainted!");
+            }
+        } else if (after > 0 && isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " took " + damage + " damage! HP: " + after);
         }
+        return fainted;
     }
 
 
@@ -184,10 +464,53 @@ public abstract class Pokemon {
      * @return the calculated damage as an integer
      */
     public int calculateDamage(int power, int limit) {
+        RandomGenerator rng = getRandom();
         if (power > limit/2) {
-            return (int) (Math.random() * 11) +10;
+            return rng.nextInt(11) + 10;
         } else {
-            return (int) (Math.random() * 10) + 1;
+            return rng.nextInt(10) + 1;
+        }
+    }
+
+    /**
+     * Calculates the damage dealt to an opponent based on their type and the attack weight.
+     * The damage is influenced by the type multiplier and by how full the resource that powers the attack is.
+     *
+     * @param opponent     the opponent Pokemon
+     * @param attackWeight the weight of the attack
+     * @return the calculated damage as an integer
+     */
+    public int damageCalculator(Pokemon opponent, double attackWeight) {
+        double multiplier = PokemonType.effectiveness(species.getTypeOrdinal(), opponent.species.getTypeOrdinal());
+        return (int) (multiplier * calculateDamage(getResourceLevel(), getMaxResourceLevel()) * attackWeight);
+    }
+
+    /**
+     * Uses an attack on the opponent, as defined by its weight, resource change and heal in {@link MoveRegistry}.
+     * The opponent takes the damage, then the resource of this Pokemon changes and it heals if its HP is below 100.
+     *
+     * @param move  the move id of the attack
+     * @param enemy the opponent Pokemon that receives the attack
+     * @return true if the attack made the opponent faint
+     */
+    public boolean useMove(int move, Pokemon enemy) {
+        int damage = damageCalculator(enemy, MoveRegistry.weightOf(move));
+        if (events.isEnabled(EventLevel.INFO)) {
+            events.emit(EventLevel.INFO, this + " used " + MoveRegistry.nameOf(move) + " on " + enemy + " and dealt " + damage + " damage!");
+        }
+        boolean fainted = enemy.gotHit(damage);
+        changeResourceLevel(MoveRegistry.resourceDeltaOf(move));
+        shouldHeal(MoveRegistry.healOf(move));
+        return fainted;
+    }
+
+    /**
+     * Gives this Pokemon all attacks that {@link MoveRegistry} defines for its type.
+     */
+    protected void addAttacksOfType() {
+        int typeOrdinal = getTypeOrdinal();
+        for (int i = 0; i < MoveRegistry.movesOf(typeOrdinal); i++) {
+            addAttack(MoveRegistry.nameOf(MoveRegistry.moveOf(typeOrdinal, i)));
         }
     }
 
@@ -199,11 +522,19 @@ public abstract class Pokemon {
      */
     public void shouldHeal(int amount) {
         // if the Pokemon's HP is less than 100, heal 30 HP
-        if (getHp() < 100) {
-            setHp(getHp() + amount);
-            System.out.println(getName() + " healed 30 HP! Current HP: " + getHp());
-        } else {
-            System.out.println(getName() + " is fully healed! HP: " + getHp());
+        int currentHp;
+        do {
+            currentHp = hp;
+            if (currentHp >= 100) {
+                if (isReporting(EventLevel.DEBUG)) {
+                    report(EventLevel.DEBUG, getName() + " is fully healed! HP: " + currentHp);
+                }
+                return;
+            }
+        } while (!HP.weakCompareAndSet(this, currentHp, currentHp + amount));
+        hpChanged(currentHp, currentHp + amount);
+        if (isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " healed " + amount + " HP! Current HP: " + (currentHp + amount));
         }
     }
 }
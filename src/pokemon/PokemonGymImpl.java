@@ -1,12 +1,15 @@
 package pokemon;
 
-import pokemon.types.FirePokemon;
-import pokemon.types.ElectricPokemon;
-import pokemon.types.GrassPokemon;
-import pokemon.types.WaterPokemon;
+import pokemon.battle.BattleStrategy;
+import pokemon.battle.MoveTable;
+import pokemon.metrics.GymMetrics;
+import pokemon.rating.Leaderboard;
+import pokemon.types.MoveRegistry;
 
 
-import java.util.*;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 // Los in deze klasse alle foutmeldingen op door (abstracte) klassen met variabelen en methodes te maken en een interface met methodes (en soms een import).
 public class PokemonGymImpl implements PokemonGym {
@@ -20,269 +23,382 @@ public class PokemonGymImpl implements PokemonGym {
 
 
     List<Pokemon> pokemons;
+    private final PokemonGymOwner gymOwner;
+    private final RandomGenerator random;
+    private final GymIO io;
+    private final GymMetrics metrics;
+    private BattleStrategy ownerStrategy;
+    private Leaderboard leaderboard;
 
     public PokemonGymImpl(List<Pokemon> pokemons) {
+        this(pokemons, new SplittableRandom());
+    }
+
+    public PokemonGymImpl(List<Pokemon> pokemons, RandomGenerator random) {
+        this(pokemons, random, new ConsoleGymIO());
+    }
+
+    /**
+     * Constructs a gym whose random choices and damage rolls all come from the given generator.
+     * Passing a seeded generator makes every battle in this gym repeatable.
+     *
+     * The gym talks to its player through the given channel, and the Pokemon that fight in it report there too.
+     *
+     * @param pokemons the Pokemon of the gym owner
+     * @param random   the random generator of this gym
+     * @param io       the channel to the player
+     */
+    public PokemonGymImpl(List<Pokemon> pokemons, RandomGenerator random, GymIO io) {
+        this(pokemons, random, io, GymMetrics.shared());
+    }
+
+    /**
+     * Constructs a gym that records its battles, turns and attacks to the given metrics.
+     * The other constructors record to {@link GymMetrics#shared()}, which is published over JMX.
+     *
+     * @param pokemons the Pokemon of the gym owner
+     * @param random   the random generator of this gym
+     * @param io       the channel to the player
+     * @param metrics  the metrics to record to, or {@link GymMetrics#DISABLED}
+     */
+    public PokemonGymImpl(List<Pokemon> pokemons, RandomGenerator random, GymIO io, GymMetrics metrics) {
         this.pokemons = pokemons;
+        this.gymOwner = new PokemonGymOwner("Brock", "Pewter City", pokemons);
+        this.random = random;
+        this.io = io;
+        this.metrics = metrics;
     }
 
+    /**
+     * Runs a visit to the gym until the player stops playing.
+     * The visit ends early, without an error, when the player's input ends.
+     *
+     * @param player1 the player that entered the gym
+     */
     @Override
     public void enteredTheGym(PokemonTrainer player1) {
-        PokemonGymOwner gymOwner = new PokemonGymOwner("Brock", "Pewter City", pokemons);
-        System.out.println("You have entered the " + gymOwner.getTown() + " gym");
-        System.out.println("In front of you stands a pokemontrainer");
-        System.out.println(ANSI_RED + gymOwner.getName() + ANSI_RESET + ": Hello stranger, I'm " + gymOwner.getName() + ", the owner of this gym. Who are you?");
-        System.out.println(ANSI_GREEN + player1.getName() + ANSI_RESET + ": I'm " + player1.getName() + " and i'm here to challenge you for a battle");
-        System.out.println(ANSI_RED + gymOwner.getName() + ANSI_RESET + ": So you're after my badge too, lets fight!!!");
+        runSession(player1, null, null, null, SessionState.ENTER);
+    }
+
+    /**
+     * The steps of a visit to the gym. A session moves from one step to the next in a loop,
+     * so rematches and changes of Pokemon never add stack frames.
+     */
+    private enum SessionState {
+        /**
+         * The gym owner greets the challenger and both choose a Pokemon.
+         */
+        ENTER,
+        /**
+         * The chosen Pokemon fight until one of them faints.
+         */
+        FIGHT,
+        /**
+         * The challenger decides whether to play again.
+         */
+        ROUND_OVER,
+        /**
+         * The challenger has left the gym.
+         */
+        FINISHED
+    }
+
+    /**
+     * Runs a visit to the gym from the given step until the challenger leaves.
+     *
+     * @param trainer    the challenger
+     * @param owner      the gym owner, or null when starting at {@link SessionState#ENTER}
+     * @param pokemon    the challenger's Pokemon, or null when starting at {@link SessionState#ENTER}
+     * @param gymPokemon the gym owner's Pokemon, or null when starting at {@link SessionState#ENTER}
+     * @param state      the step to start at
+     */
+    private void runSession(PokemonTrainer trainer, PokemonGymOwner owner, Pokemon pokemon, Pokemon gymPokemon,
+                            SessionState state) {
+        try {
+            runSteps(trainer, owner, pokemon, gymPokemon, state);
+        } catch (GymSessionClosedException e) {
+            // the player walked away mid-question, there is nobody left to say goodbye to
+        }
+    }
 
-        Pokemon gymPokemon = chooseGymPokemon(gymOwner);
-        System.out.println(ANSI_RED + gymOwner.getName() + ANSI_RESET + ": I'll choose you, " + gymPokemon.getName());
-        Pokemon pokemon = choosePokemon(player1);
-        System.out.println(ANSI_GREEN + player1.getName() + ANSI_RESET + ": I'll choose you, " + pokemon.getName());
+    private void runSteps(PokemonTrainer trainer, PokemonGymOwner owner, Pokemon pokemon, Pokemon gymPokemon,
+                          SessionState state) {
+        while (state != SessionState.FINISHED) {
+            switch (state) {
+                case ENTER -> {
+                    owner = gymOwner;
+                    prepare(trainer);
+                    prepare(owner);
+                    io.println("You have entered the " + owner.getTown() + " gym");
+                    io.println("In front of you stands a pokemontrainer");
+                    io.println(ANSI_RED + owner.getName() + ANSI_RESET + ": Hello stranger, I'm " + owner.getName() + ", the owner of this gym. Who are you?");
+                    io.println(ANSI_GREEN + trainer.getName() + ANSI_RESET + ": I'm " + trainer.getName() + " and i'm here to challenge you for a battle");
 
-        fightRound(player1, gymOwner, pokemon, gymPokemon);
+                    if (!owner.hasPokemonLeft() || !trainer.hasPokemonLeft()) {
+                        io.println(ANSI_RED + owner.getName() + ANSI_RESET + ": Come back when our pokemon have rested");
+                        state = SessionState.FINISHED;
+                    } else {
+                        io.println(ANSI_RED + owner.getName() + ANSI_RESET + ": So you're after my badge too, lets fight!!!");
+                        gymPokemon = chooseGymPokemon(owner);
+                        io.println(ANSI_RED + owner.getName() + ANSI_RESET + ": I'll choose you, " + gymPokemon.getName());
+                        pokemon = choosePokemon(trainer);
+                        io.println(ANSI_GREEN + trainer.getName() + ANSI_RESET + ": I'll choose you, " + pokemon.getName());
+                        state = SessionState.FIGHT;
+                    }
+                }
+                case FIGHT -> {
+                    metrics.battleStarted();
+                    int turns = 0;
+                    try {
+                        while (pokemon.getHp() > 0 && gymPokemon.getHp() > 0) {
+                            io.println("Its " + owner.getName() + "'s turn to attack");
+                            gymOwnerAttacks(gymPokemon, pokemon);
+                            io.println("Its " + trainer.getName() + "'s turn to attack");
+                            pokemon = playerTurn(pokemon, gymPokemon, trainer);
+                            turns += 2;
+                        }
+                    } catch (GymSessionClosedException e) {
+                        metrics.battleAbandoned();
+                        throw e;
+                    }
+                    metrics.battleFinished(turns);
+                    if (pokemon.getHp() <= 0) {
+                        io.println(gymPokemon.getName() + " has defeated " + pokemon.getName());
+                    } else {
+                        io.println(pokemon.getName() + " has defeated " + gymPokemon.getName());
+                    }
+                    if (leaderboard != null) {
+                        if (pokemon.getHp() <= 0) {
+                            leaderboard.recordWin(owner, trainer);
+                        } else {
+                            leaderboard.recordWin(trainer, owner);
+                        }
+                    }
+                    state = SessionState.ROUND_OVER;
+                }
+                case ROUND_OVER -> {
+                    io.println("Would you like to keep playing? yes or no");
+                    if (readLine().equals("yes")) {
+                        state = SessionState.ENTER;
+                    } else {
+                        io.println("Thank you for playing");
+                        state = SessionState.FINISHED;
+                    }
+                }
+                default -> throw new IllegalStateException("Unexpected session state: " + state);
+            }
+        }
+    }
 
+    /**
+     * Lets all of the trainer's Pokemon roll their damage with the random generator of this gym
+     * and report to the player's channel.
+     *
+     * @param trainer the trainer whose Pokemon fight in this gym
+     */
+    private void prepare(PokemonTrainer trainer) {
+        for (Pokemon p : trainer.getPokemons()) {
+            p.setRandom(random);
+            p.setEvents(io.getEvents());
+        }
+    }
+
+    /**
+     * Reads the player's answer.
+     *
+     * @return the line the player typed
+     * @throws GymSessionClosedException if the player's input has ended
+     */
+    private String readLine() {
+        String line = io.readLine();
+        if (line == null) {
+            throw new GymSessionClosedException();
+        }
+        return line;
     }
 
     @Override
     public void printPokemon(List<Pokemon> pokemons) {
         for (Pokemon p : pokemons) {
-            System.out.println(p.getName());
+            io.println(p.getName());
         }
     }
 
+    /**
+     * Looks up one of the trainer's Pokemon by name, ignoring case.
+     *
+     * @param pokemon the name the player typed
+     * @param trainer the player
+     * @return the Pokemon, or null if the trainer has no Pokemon of that name
+     */
     @Override
     public Pokemon selectPokemon(String pokemon, PokemonTrainer trainer) {
-        List<Pokemon> pokemons = trainer.getPokemons();
-        int number = 0;
-        for (int i = 0; i < pokemons.size(); i++) {
-            if (pokemons.get(i).getName().equalsIgnoreCase(pokemon)) {
-                number = i;
-            }
-        }
-        return pokemons.get(number);
+        return trainer.findPokemon(pokemon);
     }
 
     @Override
     public void fightRound(PokemonTrainer trainer, PokemonGymOwner owner, Pokemon pokemon, Pokemon gymPokemon) {
-        Scanner speler_A = new Scanner(System.in);
-        while (pokemon.getHp() > 0 && gymPokemon.getHp() > 0) {
-
-            System.out.println("Its " + owner.getName() + "'s turn to attack");
-            gymOwnerAttacks(gymPokemon, pokemon);
-            System.out.println("Its " + trainer.getName() + "'s turn to attack");
-            attackOrChange(pokemon, gymPokemon, trainer, owner);
-
-        }
-        if (pokemon.getHp() <= 0) {
-            System.out.println(gymPokemon.getName() + " has defeated " + pokemon.getName());
-        } else if (gymPokemon.getHp() <= 0) {
-            System.out.println(pokemon.getName() + " has defeated " + gymPokemon.getName());
-        }
-
-        System.out.println("Would you like to keep playing? yes or no");
-        String keepPlaying = speler_A.nextLine();
-        if (keepPlaying.equals("yes")) {
-            enteredTheGym(trainer);
-        } else {
-            System.out.println("Thank you for playing");
-        }
+        runSession(trainer, owner, pokemon, gymPokemon, SessionState.FIGHT);
     }
 
     @Override
     public Pokemon chooseGymPokemon(PokemonGymOwner gymOwner) {
-        Random rand = new Random();
-        List<Pokemon> pokemons = new ArrayList<>();
-        for (Pokemon p : gymOwner.getPokemons()) {
-            if (p.getHp() > 0) {
-                pokemons.add(p);
-            }
-        }
-        int amountOfPokemons = pokemons.size();
-        int randomNumber = rand.nextInt(amountOfPokemons);
-        return pokemons.get(randomNumber);
+        return gymOwner.randomAlivePokemon(random);
     }
 
+    /**
+     * Asks the player for one of their Pokemon that can still fight, and asks again when the player
+     * types a name that is not on their roster.
+     *
+     * @param trainer the player
+     * @return the Pokemon the player chose
+     */
     @Override
     public Pokemon choosePokemon(PokemonTrainer trainer) {
-        Scanner speler_A = new Scanner(System.in);
-        List<Pokemon> pokemons = new ArrayList<>();
-        for (Pokemon p : trainer.getPokemons()) {
-            if (p.getHp() > 0) {
-                pokemons.add(p);
+        while (true) {
+            io.println("Please make your choice of pokemon to attack");
+            for (Pokemon p : trainer.getPokemons()) {
+                if (p.getHp() > 0) {
+                    io.println(p.getName());
+                }
             }
+            String pokemon = readLine();
+            Pokemon chosen = selectPokemon(pokemon, trainer);
+            if (chosen != null) {
+                return chosen;
+            }
+            io.println("You don't have a pokemon called " + pokemon);
         }
-        System.out.println("Please make your choice of pokemon to attack");
-        for (Pokemon p : pokemons) {
-            System.out.println(p.getName());
-        }
-        String pokemon = speler_A.nextLine();
-        return selectPokemon(pokemon, trainer);
+    }
+
+    public BattleStrategy getOwnerStrategy() {
+        return ownerStrategy;
+    }
+
+    /**
+     * Lets the gym owner choose its attacks with a strategy, such as {@link pokemon.battle.ExpectimaxStrategy} or
+     * {@link pokemon.battle.MoveTableStrategy}, instead of at random. Sessions recorded for replay assume the gym owner attacks at random.
+     *
+     * @param ownerStrategy the strategy of the gym owner, or null to attack at random
+     */
+    public void setOwnerStrategy(BattleStrategy ownerStrategy) {
+        this.ownerStrategy = ownerStrategy;
+    }
+
+    public PokemonGymOwner getGymOwner() {
+        return gymOwner;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Lets every battle fought in this gym change the ratings of the challenger and the gym owner.
+     *
+     * @param leaderboard the leaderboard to record the battles on, or null to keep no ratings
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
     }
 
     @Override
     public int randomAttackByGymOwner() {
-        Random rand = new Random();
         int maxAttacks = 4;
-        return rand.nextInt(maxAttacks);
+        return random.nextInt(maxAttacks);
     }
 
     @Override
     public String chooseAttackPlayer(Pokemon p) {
-        Scanner speler_A = new Scanner(System.in);
-        String type = p.getType();
-
-        // cast to lower case to avoid case sensitivity
-        switch (type.toLowerCase()) {
-            case "fire" -> {
-                FirePokemon fp = (FirePokemon) p;
-                fp.speaks();
-                System.out.println("Choose your attack");
-                System.out.println(fp.getAttacks());
-                return speler_A.nextLine();
-            }
-            case "water" -> {
-                WaterPokemon wp = (WaterPokemon) p;
-                wp.speaks();
-                System.out.println("Choose your attack");
-                System.out.println(wp.getAttacks());
-                return speler_A.nextLine();
-            }
-            case "electric" -> {
-                ElectricPokemon ep = (ElectricPokemon) p;
-                ep.speaks();
-                System.out.println("Choose your attack");
-                System.out.println(ep.getAttacks());
-                return speler_A.nextLine();
-            }
-            default -> {
-                GrassPokemon gp = (GrassPokemon) p;
-                gp.speaks();
-                System.out.println("Choose your attack");
-                System.out.println(gp.getAttacks());
-                return speler_A.nextLine();
-            }
+        p.speaks();
+        io.println("Choose your attack");
+        io.println(p.getAttacks().toString());
+        return readLine();
+    }
+
+    /**
+     * Lets the player choose an attack, and tells them the best attack against the gym owner's Pokemon
+     * for as long as they type hint.
+     *
+     * @param pokemon    the player's active Pokemon
+     * @param gymPokemon the gym owner's Pokemon
+     * @return the attack the player typed
+     */
+    private String chooseAttackPlayer(Pokemon pokemon, Pokemon gymPokemon) {
+        String attack = chooseAttackPlayer(pokemon);
+        while (attack.equalsIgnoreCase("hint")) {
+            io.println("Hint: " + suggestAttack(pokemon, gymPokemon));
+            attack = readLine();
         }
+        return attack;
+    }
+
+    /**
+     * Suggests the attack that deals the most damage against the gym owner's Pokemon, looked up in the shared
+     * {@link MoveTable}.
+     *
+     * @param pokemon    the player's active Pokemon
+     * @param gymPokemon the gym owner's Pokemon
+     * @return the name of the attack
+     */
+    public String suggestAttack(Pokemon pokemon, Pokemon gymPokemon) {
+        return MoveTable.shared().bestAttack(pokemon, gymPokemon);
     }
 
     @Override
     public void performAttackPlayer(Pokemon pokemon, Pokemon gymPokemon, String attack) {
-        FirePokemon fire;
-        ElectricPokemon electric;
-        GrassPokemon grass;
-        WaterPokemon water;
-
-        String choosenAttack = attack.toLowerCase(Locale.ROOT);
-
-        switch (pokemon.getType()) {
-            case "fire" -> {
-                fire = new FirePokemon(pokemon.getName(), pokemon.getLevel(), pokemon.getHp(), pokemon.getFood(), pokemon.getSound());
-                switch (choosenAttack) {
-                    case "inferno" -> fire.inferno(pokemon, gymPokemon);
-                    case "pyroball" -> fire.pyroBall(pokemon, gymPokemon);
-                    case "firelash" -> fire.fireLash(pokemon, gymPokemon);
-                    default -> fire.flameThrower(pokemon, gymPokemon);
-                }
-                fire.levelUp();
-            }
-            case "water" -> {
-                water = new WaterPokemon(pokemon.getName(), pokemon.getLevel(), pokemon.getHp(), pokemon.getFood(), pokemon.getSound());
-                switch (choosenAttack) {
-                    case "surf" -> water.surf(pokemon, gymPokemon);
-                    case "hydropump" -> water.hydroPump(pokemon, gymPokemon);
-                    case "hydrocanon" -> water.hydroCanon(pokemon, gymPokemon);
-                    default -> water.rainDance(pokemon, gymPokemon);
-                }
-                water.levelUp();
-            }
-            case "grass" -> {
-                grass = new GrassPokemon(pokemon.getName(), pokemon.getLevel(), pokemon.getHp(), pokemon.getFood(), pokemon.getSound());
-                switch (choosenAttack) {
-                    case "leafstorm" -> grass.leafStorm(pokemon, gymPokemon);
-                    case "solarbeam" -> grass.solarBeam(pokemon, gymPokemon);
-                    case "leechseed" -> grass.leechSeed(pokemon, gymPokemon);
-                    default -> grass.leaveBlade(pokemon, gymPokemon);
-                }
-                grass.levelUp();
-            }
-            default -> {
-                electric = new ElectricPokemon(pokemon.getName(), pokemon.getLevel(), pokemon.getHp(), pokemon.getFood(), pokemon.getSound());
-                switch (choosenAttack) {
-                    case "thunderpunch" -> electric.thunderPunch(pokemon, gymPokemon);
-                    case "electroball" -> electric.electroBall(pokemon, gymPokemon);
-                    case "thunder" -> electric.thunder(pokemon, gymPokemon);
-                    default -> electric.voltTackle(pokemon, gymPokemon);
-                }
-                electric.levelUp();
-            }
-        }
+        resolve(MoveRegistry.idOf(pokemon.getPokemonType(), attack), pokemon, gymPokemon);
     }
 
     @Override
     public void gymOwnerAttacks(Pokemon gymPokemon, Pokemon pokemon) {
-        FirePokemon fire;
-        ElectricPokemon electric;
-        GrassPokemon grass;
-        WaterPokemon water;
-
-        switch (gymPokemon.getType()) {
-            case "fire" -> {
-                fire = new FirePokemon(gymPokemon.getName(), gymPokemon.getLevel(), gymPokemon.getHp(), gymPokemon.getFood(), gymPokemon.getSound());
-                String attack = fire.getAttacks().get(randomAttackByGymOwner());
-                switch (attack) {
-                    case "inferno" -> fire.inferno(gymPokemon, pokemon);
-                    case "pyroBall" -> fire.pyroBall(gymPokemon, pokemon);
-                    case "fireLash" -> fire.fireLash(gymPokemon, pokemon);
-                    default -> fire.flameThrower(gymPokemon, pokemon);
-                }
-            }
-            case "water" -> {
-                water = new WaterPokemon(gymPokemon.getName(), gymPokemon.getLevel(), gymPokemon.getHp(), gymPokemon.getFood(), gymPokemon.getSound());
-                String attack = water.getAttacks().get(randomAttackByGymOwner());
-                switch (attack) {
-                    case "surf" -> water.surf(gymPokemon, pokemon);
-                    case "hydroPump" -> water.hydroPump(gymPokemon, pokemon);
-                    case "hydroCanon" -> water.hydroCanon(gymPokemon, pokemon);
-                    default -> water.rainDance(gymPokemon, pokemon);
-                }
-            }
-            case "grass" -> {
-                grass = new GrassPokemon(gymPokemon.getName(), gymPokemon.getLevel(), gymPokemon.getHp(), gymPokemon.getFood(), gymPokemon.getSound());
-                String attack = grass.getAttacks().get(randomAttackByGymOwner());
-                switch (attack) {
-                    case "leafStorm" -> grass.leafStorm(gymPokemon, pokemon);
-                    case "solarBeam" -> grass.solarBeam(gymPokemon, pokemon);
-                    case "leechSeed" -> grass.leechSeed(gymPokemon, pokemon);
-                    default -> grass.leaveBlade(gymPokemon, pokemon);
-                }
-            }
-            default -> {
-                electric = new ElectricPokemon(gymPokemon.getName(), gymPokemon.getLevel(), gymPokemon.getHp(), gymPokemon.getFood(), gymPokemon.getSound());
-                String attack = electric.getAttacks().get(randomAttackByGymOwner());
-                switch (attack) {
-                    case "thunderPunch" -> electric.thunderPunch(gymPokemon, pokemon);
-                    case "electroBall" -> electric.electroBall(gymPokemon, pokemon);
-                    case "thunder" -> electric.thunder(gymPokemon, pokemon);
-                    default -> electric.voltTackle(gymPokemon, pokemon);
-                }
-            }
-        }
+        int move = ownerStrategy != null
+                ? ownerStrategy.chooseMove(gymPokemon, pokemon)
+                : MoveRegistry.moveOf(gymPokemon.getTypeOrdinal(), randomAttackByGymOwner());
+        resolve(move, gymPokemon, pokemon);
+    }
+
+    /**
+     * Executes an attack and records its damage, whether it made the defender faint and how long it took.
+     *
+     * @param move     the move id of the attack
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that is attacked
+     */
+    private void resolve(int move, Pokemon attacker, Pokemon defender) {
+        long start = System.nanoTime();
+        int hpBefore = defender.getHp();
+        MoveRegistry.execute(move, attacker, defender);
+        int hpAfter = defender.getHp();
+        metrics.turnResolved(move, attacker.getTypeOrdinal(), defender.getTypeOrdinal(), hpBefore - hpAfter,
+                hpBefore > 0 && hpAfter <= 0, System.nanoTime() - start);
     }
 
     @Override
     public void attackOrChange(Pokemon pokemon, Pokemon gymPokemon, PokemonTrainer trainer, PokemonGymOwner gym) {
-        Scanner speler_A = new Scanner(System.in);
+        playerTurn(pokemon, gymPokemon, trainer);
+    }
 
-        System.out.println("Do you want to attack or change your pokemon?");
-        System.out.println("Type a for attack or c for change");
-        String choice = speler_A.nextLine();
+    /**
+     * Lets the player change Pokemon as often as they like and then attack.
+     *
+     * @param pokemon    the player's active Pokemon
+     * @param gymPokemon the gym owner's Pokemon
+     * @param trainer    the player
+     * @return the Pokemon the player attacked with, which stays active for the rest of the fight
+     */
+    private Pokemon playerTurn(Pokemon pokemon, Pokemon gymPokemon, PokemonTrainer trainer) {
+        while (true) {
+            io.println("Do you want to attack or change your pokemon?");
+            io.println("Type a for attack or c for change");
+            String choice = readLine();
 
-        if (choice.equalsIgnoreCase("a")) {
-            String attack = chooseAttackPlayer(pokemon);
-            performAttackPlayer(pokemon, gymPokemon, attack);
-        } else {
+            if (choice.equalsIgnoreCase("a")) {
+                String attack = chooseAttackPlayer(pokemon, gymPokemon);
+                performAttackPlayer(pokemon, gymPokemon, attack);
+                return pokemon;
+            }
             pokemon = choosePokemon(trainer);
-            attackOrChange(pokemon, gymPokemon, trainer, gym);
-            fightRound(trainer, gym, pokemon, gymPokemon);
         }
     }
 
@@ -1,14 +1,40 @@
 package pokemon;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
 
+/**
+ * A trainer with a roster of Pokemon.
+ * <p>
+ * The trainer keeps two indexes over its roster: the Pokemon by name, ignoring case, and the set of Pokemon that
+ * can still fight. The second is kept up to date by the Pokemon themselves, which tell the trainer whenever they
+ * faint or get back on their feet (see {@link AliveListener}), so looking up a Pokemon by name and picking one
+ * that can still fight take the same time for a roster of thousands as for six.
+ * Call {@link #reindex()} after changing the list returned by {@link #getPokemons()}.
+ * <p>
+ * Because the Pokemon hold on to the trainer this way, a trainer built over Pokemon that outlive it, such as
+ * a temporary gym owner over a gym's Pokemon, must be {@link #detach() detached} once it is done with. A trainer
+ * over Pokemon of its own, like fresh copies for one battle, can simply be dropped together with them.
+ */
 public class PokemonTrainer {
     private String name;
     private List<Pokemon> pokemons = new ArrayList<Pokemon>();
+    private final Map<String, Integer> indexByName = new HashMap<>();
+    private Slot[] slots = new Slot[0];
+    // the roster positions of the Pokemon that can still fight, in no particular order, the first aliveCount count
+    private int[] alive = new int[0];
+    // for every roster position, where it is in alive, or -1 when that Pokemon has fainted
+    private int[] alivePosition = new int[0];
+    private int aliveCount;
+
     public PokemonTrainer(String name, List<Pokemon> pokemons) {
         this.name = name;
         this.pokemons = pokemons;
+        reindex();
     }
 
     public String getName() {
@@ -25,6 +51,133 @@ public class PokemonTrainer {
 
     public void setPokemons(List<Pokemon> pokemons) {
         this.pokemons = pokemons;
+        reindex();
+    }
+
+    /**
+     * Rebuilds the name index and the set of Pokemon that can still fight from the roster.
+     * The Pokemon that were on the roster before stop reporting to this trainer.
+     */
+    public synchronized void reindex() {
+        detach();
+        int size = pokemons.size();
+        indexByName.clear();
+        slots = new Slot[size];
+        alive = new int[size];
+        alivePosition = new int[size];
+        aliveCount = 0;
+        for (int i = 0; i < size; i++) {
+            Pokemon p = pokemons.get(i);
+            // like a scan from the front, a later Pokemon with the same name wins
+            indexByName.put(fold(p.getName()), i);
+            alivePosition[i] = -1;
+            slots[i] = new Slot(p, i);
+            p.addAliveListener(slots[i]);
+            refresh(i);
+        }
+    }
+
+    /**
+     * Stops listening to the Pokemon of the roster, so they no longer keep this trainer reachable.
+     * From then on the set of Pokemon that can still fight is not kept up to date, until {@link #reindex()}.
+     */
+    public synchronized void detach() {
+        for (Slot slot : slots) {
+            slot.pokemon.removeAliveListener(slot);
+        }
+        slots = new Slot[0];
+    }
+
+    /**
+     * Finds a Pokemon on the roster by its name, ignoring case.
+     *
+     * @param pokemonName the name of the Pokemon
+     * @return the Pokemon, or null if the trainer has no Pokemon of that name
+     */
+    public synchronized Pokemon findPokemon(String pokemonName) {
+        Integer index = indexByName.get(fold(pokemonName));
+        return index == null ? null : pokemons.get(index);
+    }
+
+    /**
+     * Returns the number of Pokemon on the roster that can still fight.
+     *
+     * @return the number of Pokemon with HP above 0
+     */
+    public synchronized int getAliveCount() {
+        return aliveCount;
+    }
+
+    public boolean hasPokemonLeft() {
+        return getAliveCount() > 0;
     }
 
+    /**
+     * Returns one of the Pokemon that can still fight. The order of these Pokemon changes as they faint and revive,
+     * it is not the order of the roster.
+     *
+     * @param n a number from 0 up to {@link #getAliveCount()}
+     * @return the n-th Pokemon that can still fight
+     */
+    public synchronized Pokemon getAlivePokemon(int n) {
+        if (n < 0 || n >= aliveCount) {
+            throw new IndexOutOfBoundsException("n " + n + ", alive " + aliveCount);
+        }
+        return pokemons.get(alive[n]);
+    }
+
+    /**
+     * Picks one of the Pokemon that can still fight.
+     *
+     * @param random the generator to pick with
+     * @return a random Pokemon with HP above 0, or null if all have fainted
+     */
+    public synchronized Pokemon randomAlivePokemon(RandomGenerator random) {
+        return aliveCount == 0 ? null : pokemons.get(alive[random.nextInt(aliveCount)]);
+    }
+
+    /**
+     * Moves a Pokemon in or out of the set of Pokemon that can still fight, after its HP crossed 0.
+     * The HP is read again, so reports that arrive out of order still leave the right state behind.
+     */
+    private synchronized void refresh(int index) {
+        boolean standing = pokemons.get(index).getHp() > 0;
+        int position = alivePosition[index];
+        if (standing && position < 0) {
+            alive[aliveCount] = index;
+            alivePosition[index] = aliveCount++;
+        } else if (!standing && position >= 0) {
+            int last = alive[--aliveCount];
+            alive[position] = last;
+            alivePosition[last] = position;
+            alivePosition[index] = -1;
+        }
+    }
+
+    private static String fold(String pokemonName) {
+        return pokemonName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Listens to one Pokemon of the roster.
+     */
+    private final class Slot implements AliveListener {
+        private final Pokemon pokemon;
+        private final int index;
+
+        private Slot(Pokemon pokemon, int index) {
+            this.pokemon = pokemon;
+            this.index = index;
+        }
+
+        @Override
+        public void aliveChanged(Pokemon pokemon, boolean alive) {
+            synchronized (PokemonTrainer.this) {
+                // a report that crossed a reindex belongs to a roster that is gone
+                if (index < slots.length && slots[index] == this) {
+                    refresh(index);
+                }
+            }
+        }
+    }
 }
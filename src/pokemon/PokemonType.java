@@ -0,0 +1,81 @@
+package pokemon;
+
+/**
+ * The four types a Pokemon can have, with the damage multipliers between them.
+ * <p>
+ * The multipliers are kept in one flat table indexed by the ordinals of the attacking and the defending type,
+ * so looking one up is a single array read.
+ */
+public enum PokemonType {
+    FIRE("Fire"),
+    WATER("Water"),
+    GRASS("Grass"),
+    ELECTRIC("Electric");
+
+    private static final PokemonType[] VALUES = values();
+    private static final int COUNT = VALUES.length;
+
+    // rows are the attacking type, columns the defending type, both in declaration order
+    private static final double[] EFFECTIVENESS = {
+            //  fire water grass electric
+            1.2, 2.0, 2.5, 1.5, // fire
+            2.5, 1.2, 1.5, 2.0, // water
+            2.0, 1.5, 1.2, 2.5, // grass
+            1.5, 2.5, 2.0, 1.2, // electric
+    };
+
+    private final String displayName;
+
+    PokemonType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Returns the damage multiplier of an attack by one type on another.
+     *
+     * @param attacker the ordinal of the attacking type
+     * @param defender the ordinal of the defending type
+     * @return the damage multiplier
+     */
+    public static double effectiveness(int attacker, int defender) {
+        return EFFECTIVENESS[attacker * COUNT + defender];
+    }
+
+    /**
+     * Returns the damage multiplier of an attack by this type on the given type.
+     *
+     * @param defender the defending type
+     * @return the damage multiplier
+     */
+    public double effectivenessAgainst(PokemonType defender) {
+        return effectiveness(ordinal(), defender.ordinal());
+    }
+
+    public static PokemonType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Finds the type with the given name, ignoring case.
+     *
+     * @param name the name of the type, for example "Fire" or "fire"
+     * @return the matching type
+     * @throws IllegalArgumentException if no type has that name
+     */
+    public static PokemonType fromName(String name) {
+        for (PokemonType type : VALUES) {
+            if (type.displayName.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown Pokemon type: " + name);
+    }
+
+    public String toString() {
+        return displayName;
+    }
+}
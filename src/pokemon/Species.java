@@ -0,0 +1,128 @@
+package pokemon;
+
+import pokemon.types.MoveRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What all Pokemon of a kind have in common: their type, the food they like, the sound they make and their attacks.
+ * <p>
+ * A Species never changes, so every Pokemon of a kind holds the same one and keeps only its own HP, level and
+ * resource. A Pokemon that is given a different food, sound or extra attack gets a species of its own.
+ */
+public final class Species {
+    private final PokemonType type;
+    private final String food;
+    private final String sound;
+    private final List<String> attacks;
+
+    /**
+     * Constructs a Species.
+     *
+     * @param type    the type of the species, or null for none
+     * @param food    the food the species likes
+     * @param sound   the sound the species makes
+     * @param attacks the names of the attacks of the species
+     */
+    public Species(PokemonType type, String food, String sound, List<String> attacks) {
+        this.type = type;
+        this.food = food;
+        this.sound = sound;
+        this.attacks = List.copyOf(attacks);
+    }
+
+    /**
+     * Creates a species with all attacks that {@link MoveRegistry} defines for its type.
+     *
+     * @param type  the type of the species
+     * @param food  the food the species likes
+     * @param sound the sound the species makes
+     * @return the new species
+     */
+    public static Species of(PokemonType type, String food, String sound) {
+        int typeOrdinal = type.ordinal();
+        List<String> attacks = new ArrayList<>();
+        for (int i = 0; i < MoveRegistry.movesOf(typeOrdinal); i++) {
+            attacks.add(MoveRegistry.nameOf(MoveRegistry.moveOf(typeOrdinal, i)));
+        }
+        return new Species(type, food, sound, attacks);
+    }
+
+    public PokemonType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the ordinal of the type, for looking up type multipliers with {@link PokemonType#effectiveness(int, int)}.
+     *
+     * @return the ordinal of the type, or -1 if the species has no type
+     */
+    public int getTypeOrdinal() {
+        return type == null ? -1 : type.ordinal();
+    }
+
+    public String getFood() {
+        return food;
+    }
+
+    public String getSound() {
+        return sound;
+    }
+
+    /**
+     * Returns the names of the attacks of the species, in the order of {@link MoveRegistry}.
+     *
+     * @return an unmodifiable list of attack names
+     */
+    public List<String> getAttacks() {
+        return attacks;
+    }
+
+    /**
+     * Returns a species like this one with another type.
+     *
+     * @param type the type
+     * @return this species if it has the type already, otherwise a new one
+     */
+    public Species withType(PokemonType type) {
+        return type == this.type ? this : new Species(type, food, sound, attacks);
+    }
+
+    /**
+     * Returns a species like this one that likes another food.
+     *
+     * @param food the food
+     * @return this species if it likes the food already, otherwise a new one
+     */
+    public Species withFood(String food) {
+        return Objects.equals(food, this.food) ? this : new Species(type, food, sound, attacks);
+    }
+
+    /**
+     * Returns a species like this one that makes another sound.
+     *
+     * @param sound the sound
+     * @return this species if it makes the sound already, otherwise a new one
+     */
+    public Species withSound(String sound) {
+        return Objects.equals(sound, this.sound) ? this : new Species(type, food, sound, attacks);
+    }
+
+    /**
+     * Returns a species like this one with one more attack.
+     *
+     * @param attack the name of the attack to add
+     * @return a new species
+     */
+    public Species withAttack(String attack) {
+        List<String> more = new ArrayList<>(attacks);
+        more.add(attack);
+        return new Species(type, food, sound, more);
+    }
+
+    public String toString() {
+        return type + " species, likes " + food + ", says " + sound + ", attacks " + attacks;
+    }
+}
@@ -0,0 +1,220 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.event.BattleEventSink;
+import pokemon.event.NoOpEventSink;
+import pokemon.snapshot.BattleSnapshot;
+import pokemon.snapshot.SnapshotFile;
+import pokemon.types.MoveRegistry;
+
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays a gym battle from start to finish without a human at the keyboard.
+ * <p>
+ * The flow follows {@link pokemon.PokemonGymImpl}: both sides send out a Pokemon, the gym owner attacks first
+ * and then the challenger either attacks or changes Pokemon. When a Pokemon faints its trainer sends out the next
+ * one, and the battle is over once one side has no Pokemon with HP left.
+ * The engine works directly on the trainers' Pokemon, so their HP and type resources are changed by a battle.
+ * The Pokemon report to the engine's event sink while they fight, which by default listens to nothing.
+ * A battle can hand out a {@link BattleSnapshot} at the start of every move and be resumed from one later.
+ */
+public class BattleEngine {
+    public static final int DEFAULT_MAX_TURNS = 1000;
+
+    private final int maxTurns;
+    private final BattleEventSink events;
+
+    public BattleEngine() {
+        this(DEFAULT_MAX_TURNS);
+    }
+
+    public BattleEngine(int maxTurns) {
+        this(maxTurns, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Constructs a BattleEngine that calls a battle a draw after the given number of turns.
+     *
+     * @param maxTurns the maximum number of turns in one battle
+     * @param events   the sink the fighting Pokemon report to
+     */
+    public BattleEngine(int maxTurns, BattleEventSink events) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("maxTurns must be positive: " + maxTurns);
+        }
+        this.maxTurns = maxTurns;
+        this.events = events;
+    }
+
+    /**
+     * Plays a battle between a challenger and a gym owner, with all damage rolled by the given generator.
+     * The generator is handed to every Pokemon of both trainers, so a battle with seeded strategies
+     * and a seeded generator always plays out the same way.
+     *
+     * @param challenger         the trainer that challenges the gym
+     * @param challengerStrategy the decisions of the challenger
+     * @param owner              the owner of the gym, or any trainer that defends and attacks first
+     * @param ownerStrategy      the decisions of the gym owner
+     * @param random             the random generator for the damage rolls of this battle
+     * @return the result of the battle
+     */
+    public BattleResult battle(PokemonTrainer challenger, BattleStrategy challengerStrategy,
+                               PokemonTrainer owner, BattleStrategy ownerStrategy, RandomGenerator random) {
+        for (Pokemon p : challenger.getPokemons()) {
+            p.setRandom(random);
+        }
+        for (Pokemon p : owner.getPokemons()) {
+            p.setRandom(random);
+        }
+        return battle(challenger, challengerStrategy, owner, ownerStrategy);
+    }
+
+    /**
+     * Plays a battle between a challenger and a gym owner.
+     * Damage is rolled with whatever random generator the Pokemon already have.
+     *
+     * @param challenger         the trainer that challenges the gym
+     * @param challengerStrategy the decisions of the challenger
+     * @param owner              the owner of the gym, or any trainer that defends and attacks first
+     * @param ownerStrategy      the decisions of the gym owner
+     * @return the result of the battle
+     */
+    public BattleResult battle(PokemonTrainer challenger, BattleStrategy challengerStrategy,
+                               PokemonTrainer owner, BattleStrategy ownerStrategy) {
+        return battle(challenger, challengerStrategy, owner, ownerStrategy, (Consumer<BattleSnapshot>) null);
+    }
+
+    /**
+     * Plays a battle between a challenger and a gym owner and hands a checkpoint of it to the given consumer at the
+     * start of every move, for example {@link SnapshotFile#appender()}. The same snapshot instance is passed
+     * every time, so the consumer must copy what it wants to keep.
+     * Damage is rolled with whatever random generator the Pokemon already have.
+     *
+     * @param challenger         the trainer that challenges the gym
+     * @param challengerStrategy the decisions of the challenger
+     * @param owner              the owner of the gym, or any trainer that defends and attacks first
+     * @param ownerStrategy      the decisions of the gym owner
+     * @param checkpoints        the consumer of the checkpoints, or null to take none
+     * @return the result of the battle
+     * @throws IllegalArgumentException if checkpoints are taken and a trainer has more than
+     *                                  {@link BattleSnapshot#MAX_POKEMON} Pokemon
+     */
+    public BattleResult battle(PokemonTrainer challenger, BattleStrategy challengerStrategy,
+                               PokemonTrainer owner, BattleStrategy ownerStrategy,
+                               Consumer<BattleSnapshot> checkpoints) {
+        listen(challenger, owner);
+        Pokemon gymPokemon = send(owner, ownerStrategy, null);
+        if (gymPokemon == null) {
+            return new BattleResult(challenger, owner, 0);
+        }
+        Pokemon pokemon = send(challenger, challengerStrategy, gymPokemon);
+        if (pokemon == null) {
+            return new BattleResult(owner, challenger, 0);
+        }
+        return play(challenger, challengerStrategy, pokemon, owner, ownerStrategy, gymPokemon, 1,
+                BattleSnapshot.OWNER, checkpoints);
+    }
+
+    /**
+     * Continues a battle from a checkpoint taken by {@link #battle(PokemonTrainer, BattleStrategy, PokemonTrainer,
+     * BattleStrategy, Consumer)}. The HP, levels and type resources of the snapshot are put back onto the rosters
+     * it was taken from, and the battle goes on with the same active Pokemon, turn and side to move.
+     * The random generators are not part of a snapshot, so the battle goes on with new damage rolls.
+     *
+     * @param snapshot           the checkpoint to continue from
+     * @param challenger         the trainer that challenges the gym
+     * @param challengerStrategy the decisions of the challenger
+     * @param owner              the owner of the gym
+     * @param ownerStrategy      the decisions of the gym owner
+     * @param checkpoints        the consumer of the checkpoints of the rest of the battle, or null to take none
+     * @return the result of the battle, with the turns counted from the start of the original battle
+     * @throws IllegalStateException if the rosters do not match the snapshot or it has no active Pokemon
+     */
+    public BattleResult resume(BattleSnapshot snapshot, PokemonTrainer challenger, BattleStrategy challengerStrategy,
+                               PokemonTrainer owner, BattleStrategy ownerStrategy,
+                               Consumer<BattleSnapshot> checkpoints) {
+        snapshot.restore(challenger, owner);
+        listen(challenger, owner);
+        Pokemon pokemon = snapshot.getChallengerActive(challenger);
+        Pokemon gymPokemon = snapshot.getOwnerActive(owner);
+        if (pokemon == null || gymPokemon == null) {
+            throw new IllegalStateException("The snapshot was not taken during a move: " + snapshot);
+        }
+        return play(challenger, challengerStrategy, pokemon, owner, ownerStrategy, gymPokemon, snapshot.getTurn(),
+                snapshot.getToMove(), checkpoints);
+    }
+
+    private void listen(PokemonTrainer challenger, PokemonTrainer owner) {
+        for (Pokemon p : challenger.getPokemons()) {
+            p.setEvents(events);
+        }
+        for (Pokemon p : owner.getPokemons()) {
+            p.setEvents(events);
+        }
+    }
+
+    /**
+     * Plays turns from the given turn and side to move until the battle is decided or the turns run out.
+     */
+    private BattleResult play(PokemonTrainer challenger, BattleStrategy challengerStrategy, Pokemon pokemon,
+                              PokemonTrainer owner, BattleStrategy ownerStrategy, Pokemon gymPokemon,
+                              int firstTurn, byte firstToMove, Consumer<BattleSnapshot> checkpoints) {
+        BattleSnapshot snapshot = checkpoints == null ? null : new BattleSnapshot();
+        boolean ownerMoves = firstToMove == BattleSnapshot.OWNER;
+        for (int turn = firstTurn; turn <= maxTurns; turn++) {
+            if (ownerMoves) {
+                if (snapshot != null) {
+                    snapshot.set(challenger, pokemon, owner, gymPokemon, turn, BattleSnapshot.OWNER);
+                    checkpoints.accept(snapshot);
+                }
+                MoveRegistry.execute(ownerStrategy.chooseMove(gymPokemon, pokemon), gymPokemon, pokemon);
+                if (pokemon.getHp() <= 0) {
+                    pokemon = send(challenger, challengerStrategy, gymPokemon);
+                    if (pokemon == null) {
+                        return new BattleResult(owner, challenger, turn);
+                    }
+                }
+            }
+            ownerMoves = true;
+
+            if (snapshot != null) {
+                snapshot.set(challenger, pokemon, owner, gymPokemon, turn, BattleSnapshot.CHALLENGER);
+                checkpoints.accept(snapshot);
+            }
+            if (challengerStrategy.changePokemon(challenger, pokemon, gymPokemon)) {
+                pokemon = send(challenger, challengerStrategy, gymPokemon);
+                if (pokemon == null) {
+                    return new BattleResult(owner, challenger, turn);
+                }
+            } else {
+                MoveRegistry.execute(challengerStrategy.chooseMove(pokemon, gymPokemon), pokemon, gymPokemon);
+                if (gymPokemon.getHp() <= 0) {
+                    gymPokemon = send(owner, ownerStrategy, pokemon);
+                    if (gymPokemon == null) {
+                        return new BattleResult(challenger, owner, turn);
+                    }
+                }
+            }
+        }
+        return new BattleResult(null, null, Math.max(maxTurns, firstTurn - 1));
+    }
+
+    /**
+     * Asks the strategy for the next Pokemon and checks that it belongs to the trainer and can still fight.
+     *
+     * @return the Pokemon to send out, or null when the trainer has no Pokemon with HP left
+     */
+    private static Pokemon send(PokemonTrainer trainer, BattleStrategy strategy, Pokemon opponent) {
+        if (!trainer.hasPokemonLeft()) {
+            return null;
+        }
+        Pokemon chosen = strategy.choosePokemon(trainer, opponent);
+        if (chosen == null || chosen.getHp() <= 0 || !trainer.getPokemons().contains(chosen)) {
+            throw new IllegalStateException(trainer.getName() + " chose a Pokemon that cannot fight: " + chosen);
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,58 @@
+package pokemon.battle;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors that start one thread per battle or session.
+ * <p>
+ * On a Java runtime with virtual threads every task gets its own virtual thread. The project is built for Java 17,
+ * so the virtual thread executor is looked up by reflection; on older runtimes a cached pool of daemon
+ * platform threads is used instead. Callers bound the number of running tasks themselves.
+ */
+public final class BattleExecutors {
+
+    private BattleExecutors() {
+    }
+
+    /**
+     * Creates an executor that runs every task on its own thread, virtual where the runtime supports it.
+     *
+     * @param name the prefix of the names of platform threads, used when virtual threads are not available
+     * @return a new executor, to be shut down by the caller
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreads(name));
+        }
+    }
+
+    /**
+     * Tells whether {@link #newPerTaskExecutor(String)} gives out virtual threads on this runtime.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
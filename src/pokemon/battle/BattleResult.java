@@ -0,0 +1,48 @@
+package pokemon.battle;
+
+import pokemon.PokemonTrainer;
+
+/**
+ * The outcome of one battle played by the {@link BattleEngine}.
+ */
+public class BattleResult {
+    private final PokemonTrainer winner;
+    private final PokemonTrainer loser;
+    private final int turns;
+
+    /**
+     * Constructs a BattleResult.
+     *
+     * @param winner the trainer that won, or null when the battle hit the turn limit
+     * @param loser  the trainer that lost, or null when the battle hit the turn limit
+     * @param turns  the number of turns that were played
+     */
+    public BattleResult(PokemonTrainer winner, PokemonTrainer loser, int turns) {
+        this.winner = winner;
+        this.loser = loser;
+        this.turns = turns;
+    }
+
+    public PokemonTrainer getWinner() {
+        return winner;
+    }
+
+    public PokemonTrainer getLoser() {
+        return loser;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public boolean isDraw() {
+        return winner == null;
+    }
+
+    public String toString() {
+        if (isDraw()) {
+            return "Draw after " + turns + " turns";
+        }
+        return winner.getName() + " defeated " + loser.getName() + " in " + turns + " turns";
+    }
+}
@@ -0,0 +1,55 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.types.MoveRegistry;
+
+/**
+ * Makes the decisions a human player would otherwise type in during a gym battle.
+ * A strategy is consulted by the {@link BattleEngine} for every choice on one side of the battle.
+ */
+public interface BattleStrategy {
+
+    /**
+     * Chooses the Pokemon the trainer sends into battle.
+     *
+     * @param trainer  the trainer choosing a Pokemon
+     * @param opponent the Pokemon currently on the other side, or null when the battle has not started yet
+     * @return one of the trainer's Pokemon that has HP left
+     */
+    Pokemon choosePokemon(PokemonTrainer trainer, Pokemon opponent);
+
+    /**
+     * Chooses the attack the active Pokemon uses this turn.
+     *
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that receives the attack
+     * @return the name of one of the attacker's attacks
+     */
+    String chooseAttack(Pokemon attacker, Pokemon defender);
+
+    /**
+     * Chooses the attack the active Pokemon uses this turn, as a {@link MoveRegistry} move id.
+     * This is what the {@link BattleEngine} asks for. By default it looks up the name returned by
+     * {@link #chooseAttack(Pokemon, Pokemon)}; strategies that pick moves by id override it to skip the lookup.
+     *
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that receives the attack
+     * @return the move id of one of the attacker's attacks
+     */
+    default int chooseMove(Pokemon attacker, Pokemon defender) {
+        return MoveRegistry.idOf(attacker.getPokemonType(), chooseAttack(attacker, defender));
+    }
+
+    /**
+     * Decides whether the trainer changes Pokemon instead of attacking this turn.
+     *
+     * @param trainer  the trainer whose turn it is
+     * @param active   the trainer's active Pokemon
+     * @param opponent the Pokemon on the other side
+     * @return true to change Pokemon, false to attack
+     */
+    default boolean changePokemon(PokemonTrainer trainer, Pokemon active, Pokemon opponent) {
+        return false;
+    }
+}
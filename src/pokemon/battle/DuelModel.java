@@ -0,0 +1,211 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.types.MoveRegistry;
+
+/**
+ * The rules of a fight between two Pokemon as plain integer arithmetic, for searching and solving battles
+ * without playing them on real Pokemon.
+ * <p>
+ * A side is 0 or 1. An attack by one side with its m-th move does what {@link Pokemon#useMove(int, Pokemon)} does:
+ * the other side loses the damage of one of the equally likely rolls of {@link Pokemon#calculateDamage(int, int)},
+ * the attacker's resource changes by the move's delta, and the attacker heals when its HP is below 100.
+ * The damage of every roll is worked out up front with the same arithmetic as
+ * {@link Pokemon#damageCalculator(Pokemon, double)}, so the model gives the same numbers as a real battle.
+ * A DuelModel does not change and can be shared between threads.
+ */
+public final class DuelModel {
+    /**
+     * The number of rolls of a strong attack, 10 to 20 before the multipliers.
+     */
+    public static final int STRONG_ROLLS = 11;
+
+    /**
+     * The number of rolls of a weak attack, 1 to 10 before the multipliers.
+     */
+    public static final int WEAK_ROLLS = 10;
+
+    private final Pokemon[] pokemons;
+    private final int[][] moves;
+    private final int[][] resourceDelta;
+    private final int[][] heal;
+    private final int[][][] strongDamage;
+    private final int[][][] weakDamage;
+
+    /**
+     * Constructs a DuelModel for two Pokemon. Only their types, their moves and how they limit their resource are
+     * used; their HP and resource levels are passed to the methods of the model.
+     *
+     * @param first  the Pokemon of side 0
+     * @param second the Pokemon of side 1
+     */
+    public DuelModel(Pokemon first, Pokemon second) {
+        pokemons = new Pokemon[]{first, second};
+        moves = new int[2][];
+        resourceDelta = new int[2][];
+        heal = new int[2][];
+        strongDamage = new int[2][][];
+        weakDamage = new int[2][][];
+        for (int side = 0; side < 2; side++) {
+            Pokemon attacker = pokemons[side];
+            Pokemon defender = pokemons[1 - side];
+            int type = attacker.getTypeOrdinal();
+            double multiplier = PokemonType.effectiveness(type, defender.getTypeOrdinal());
+            int count = MoveRegistry.movesOf(type);
+            moves[side] = new int[count];
+            resourceDelta[side] = new int[count];
+            heal[side] = new int[count];
+            strongDamage[side] = new int[count][STRONG_ROLLS];
+            weakDamage[side] = new int[count][WEAK_ROLLS];
+            for (int m = 0; m < count; m++) {
+                int move = MoveRegistry.moveOf(type, m);
+                double weight = MoveRegistry.weightOf(move);
+                moves[side][m] = move;
+                resourceDelta[side][m] = MoveRegistry.resourceDeltaOf(move);
+                heal[side][m] = MoveRegistry.healOf(move);
+                for (int r = 0; r < STRONG_ROLLS; r++) {
+                    strongDamage[side][m][r] = (int) (multiplier * (r + 10) * weight);
+                }
+                for (int r = 0; r < WEAK_ROLLS; r++) {
+                    weakDamage[side][m][r] = (int) (multiplier * (r + 1) * weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the Pokemon a side was modelled on.
+     *
+     * @param side 0 or 1
+     * @return the Pokemon passed to the constructor
+     */
+    public Pokemon pokemonOf(int side) {
+        return pokemons[side];
+    }
+
+    /**
+     * Returns the number of moves a side can choose from.
+     *
+     * @param side 0 or 1
+     * @return the number of moves
+     */
+    public int moveCount(int side) {
+        return moves[side].length;
+    }
+
+    /**
+     * Returns the {@link MoveRegistry} id of a move.
+     *
+     * @param side 0 or 1
+     * @param m    the index of the move, as in {@link MoveRegistry#moveOf(int, int)}
+     * @return the move id
+     */
+    public int moveId(int side, int m) {
+        return moves[side][m];
+    }
+
+    /**
+     * Tells whether a side rolls strong damage with the given resource level.
+     *
+     * @param side     0 or 1
+     * @param resource the resource level of the side
+     * @return true if the resource is above half of its maximum
+     */
+    public boolean isStrong(int side, int resource) {
+        return resource > pokemons[side].getMaxResourceLevel() / 2;
+    }
+
+    /**
+     * Returns the number of equally likely damage rolls of an attack.
+     *
+     * @param side     the attacking side
+     * @param resource the resource level of the attacker
+     * @return {@link #STRONG_ROLLS} or {@link #WEAK_ROLLS}
+     */
+    public int rolls(int side, int resource) {
+        return isStrong(side, resource) ? STRONG_ROLLS : WEAK_ROLLS;
+    }
+
+    /**
+     * Returns the damage of one roll of an attack.
+     *
+     * @param side     the attacking side
+     * @param m        the index of the move
+     * @param resource the resource level of the attacker
+     * @param roll     the roll, from 0 up to {@link #rolls(int, int)}
+     * @return the damage the other side takes
+     */
+    public int damage(int side, int m, int resource, int roll) {
+        return isStrong(side, resource) ? strongDamage[side][m][roll] : weakDamage[side][m][roll];
+    }
+
+    /**
+     * Returns the resource level of the attacker after an attack.
+     *
+     * @param side     the attacking side
+     * @param m        the index of the move
+     * @param resource the resource level before the attack
+     * @return the resource level after the attack
+     */
+    public int resourceAfter(int side, int m, int resource) {
+        return pokemons[side].limitResourceLevel(resource + resourceDelta[side][m]);
+    }
+
+    /**
+     * Returns the HP of the attacker after the heal that follows an attack.
+     *
+     * @param side the attacking side
+     * @param m    the index of the move
+     * @param hp   the HP of the attacker before the heal
+     * @return the HP after the heal
+     */
+    public int hpAfterHeal(int side, int m, int hp) {
+        return hp < 100 ? hp + heal[side][m] : hp;
+    }
+
+    /**
+     * Tells whether every move of a side uses up some of its resource, so a side with strong attacks
+     * can never get back to a resource level it had before.
+     *
+     * @param side 0 or 1
+     * @return true if every resource delta of the side is below 0
+     */
+    public boolean alwaysDrains(int side) {
+        for (int delta : resourceDelta[side]) {
+            if (delta >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the largest heal of the moves of a side.
+     *
+     * @param side 0 or 1
+     * @return the largest heal, 0 if no move heals
+     */
+    public int maxHeal(int side) {
+        int max = 0;
+        for (int h : heal[side]) {
+            max = Math.max(max, h);
+        }
+        return max;
+    }
+
+    /**
+     * Tells whether no move of a side ever adds to its resource, so once its attacks are weak they stay weak.
+     *
+     * @param side 0 or 1
+     * @return true if every resource delta of the side is 0 or less
+     */
+    public boolean onlyDrains(int side) {
+        for (int delta : resourceDelta[side]) {
+            if (delta > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package pokemon.battle;
+
+/**
+ * The chances of how a fight between two Pokemon ends, from the challenger's point of view,
+ * as worked out by the {@link DuelSolver} to within {@link DuelSolver#TOLERANCE}.
+ */
+public class DuelOutcome {
+    private final double winProbability;
+    private final double lossProbability;
+
+    /**
+     * Constructs a DuelOutcome.
+     *
+     * @param winProbability  the probability that the challenger wins
+     * @param lossProbability the probability that the challenger loses
+     */
+    public DuelOutcome(double winProbability, double lossProbability) {
+        this.winProbability = winProbability;
+        this.lossProbability = lossProbability;
+    }
+
+    public double getWinProbability() {
+        return winProbability;
+    }
+
+    public double getLossProbability() {
+        return lossProbability;
+    }
+
+    /**
+     * Returns the probability that the fight never ends.
+     *
+     * @return the probability of a draw
+     */
+    public double getDrawProbability() {
+        return Math.max(0, 1 - winProbability - lossProbability);
+    }
+
+    public String toString() {
+        return String.format("win %.6f, loss %.6f, draw %.6f", winProbability, lossProbability, getDrawProbability());
+    }
+}
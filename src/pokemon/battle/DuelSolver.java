@@ -0,0 +1,421 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+
+import java.util.Arrays;
+
+/**
+ * Works out the chances of a fight between two Pokemon that both attack at random, the fight the
+ * {@link WinProbabilityEstimator} samples, without sampling.
+ * <p>
+ * Damage comes from a handful of equally likely rolls (see {@link DuelModel}), and a position in a fight is fully
+ * described by the HP and resource level of both Pokemon and whose move it is. The gym Pokemon attacks first.
+ * <p>
+ * While either Pokemon still makes strong attacks, every turn uses up some of its resource, so a fight can never
+ * come back to a position it has been in. The solver follows every move and roll from such a position and averages
+ * the outcomes, remembering every position it solved in a table keyed on a packed long. The table has a bounded
+ * size; when it is full it is emptied, which costs time but never changes an answer.
+ * <p>
+ * Once both Pokemon only make weak attacks their resource no longer matters, but healing can bring a fight back to
+ * where it was. Those positions are solved all at once for a pair of types, by repeating the averaging over all of
+ * them until no chance is estimated to be off by more than {@value #TOLERANCE}. Every other chance is an average of
+ * these, so every answer of the solver is within that tolerance of the true chance. After that, questions about
+ * the same types are answered from the tables, in microseconds.
+ * <p>
+ * The turn limit of the {@link BattleEngine} is left out, so the chance of a draw is the chance that a fight never
+ * ends. The solver needs every move to use up some resource, as all moves in moves.csv do.
+ * A DuelSolver is not thread-safe.
+ */
+public class DuelSolver {
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+    /**
+     * How far the chances the solver works out may be off at most, apart from rounding.
+     */
+    public static final double TOLERANCE = 1e-10;
+
+    private static final int TYPES = PokemonType.values().length;
+    private static final int HP_BITS = 10;
+    private static final int RESOURCE_BITS = 14;
+    private static final int RESOURCE_OFFSET = 1 << (RESOURCE_BITS - 1);
+    private static final int MAX_SWEEPS = 1_000_000;
+    private static final int STEADY_SWEEPS = 10;
+    private static final long EMPTY = -1L;
+
+    private final int maxEntries;
+    private final DuelModel[] models = new DuelModel[TYPES * TYPES];
+    private final WeakRegion[] regions = new WeakRegion[TYPES * TYPES];
+    private final long[] keys;
+    private final double[] wins;
+    private final double[] losses;
+    private final int mask;
+    private int size;
+
+    // the outcome of the last solved position, so solving does not allocate
+    private double win;
+    private double loss;
+
+    // the matchup being solved
+    private DuelModel model;
+    private WeakRegion region;
+    private long types;
+
+    public DuelSolver() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a DuelSolver.
+     *
+     * @param maxEntries the number of positions with strong attacks the solver remembers at most
+     */
+    public DuelSolver(int maxEntries) {
+        if (maxEntries <= 0 || maxEntries > 1 << 28) {
+            throw new IllegalArgumentException("maxEntries must be between 1 and 2^28: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        int capacity = Integer.highestOneBit(maxEntries) * 2;
+        keys = new long[capacity];
+        wins = new double[capacity];
+        losses = new double[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Works out the chances of a fight that starts now, with the HP and resource levels the Pokemon have.
+     *
+     * @param challenger the Pokemon of the challenger
+     * @param gymPokemon the Pokemon of the gym owner, which attacks first
+     * @return the chances from the challenger's point of view, to within {@link #TOLERANCE}
+     * @throws IllegalStateException if the chances can not be worked out to within {@link #TOLERANCE}
+     */
+    public DuelOutcome solve(Pokemon challenger, Pokemon gymPokemon) {
+        return solve(challenger, gymPokemon, false);
+    }
+
+    /**
+     * Works out the chances of a fight that is under way, with the HP and resource levels the Pokemon have.
+     *
+     * @param challenger       the Pokemon of the challenger
+     * @param gymPokemon       the Pokemon of the gym owner, which attacks first in every turn
+     * @param challengerToMove true if the gym Pokemon has attacked in the current turn and the challenger is next
+     * @return the chances from the challenger's point of view, to within {@link #TOLERANCE}
+     * @throws IllegalStateException if the chances can not be worked out to within {@link #TOLERANCE}
+     */
+    public DuelOutcome solve(Pokemon challenger, Pokemon gymPokemon, boolean challengerToMove) {
+        if (challenger.getHp() <= 0) {
+            return new DuelOutcome(0, 1);
+        }
+        if (gymPokemon.getHp() <= 0) {
+            return new DuelOutcome(1, 0);
+        }
+        int index = gymPokemon.getTypeOrdinal() * TYPES + challenger.getTypeOrdinal();
+        if (models[index] == null) {
+            DuelModel duel = new DuelModel(gymPokemon, challenger);
+            if (!duel.alwaysDrains(0) || !duel.alwaysDrains(1)) {
+                throw new IllegalStateException("The solver needs every move to use up resource");
+            }
+            models[index] = duel;
+        }
+        model = models[index];
+        types = index;
+        int hp0 = checkHp(gymPokemon.getHp());
+        int hp1 = checkHp(challenger.getHp());
+        region = regions[index];
+        if (region == null || !region.covers(hp0, hp1)) {
+            // size the region for the HP of this fight, a fight never heals past 99 plus the largest heal
+            region = new WeakRegion(model, Math.max(hp0, 99 + model.maxHeal(0)), Math.max(hp1, 99 + model.maxHeal(1)));
+            regions[index] = region;
+        }
+
+        solve(challengerToMove ? 1 : 0, hp0, gymPokemon.getResourceLevel(), hp1, challenger.getResourceLevel());
+        return new DuelOutcome(win, loss);
+    }
+
+    /**
+     * Returns the probability that the challenger beats the gym Pokemon in a fight that starts now.
+     *
+     * @param challenger the Pokemon of the challenger
+     * @param gymPokemon the Pokemon of the gym owner, which attacks first
+     * @return the probability that the challenger wins, to within {@link #TOLERANCE}
+     * @throws IllegalStateException if the chance can not be worked out to within {@link #TOLERANCE}
+     */
+    public double winProbability(Pokemon challenger, Pokemon gymPokemon) {
+        return solve(challenger, gymPokemon).getWinProbability();
+    }
+
+    /**
+     * Returns the number of positions with strong attacks the solver remembers right now.
+     *
+     * @return the number of cached positions
+     */
+    public int cachedPositions() {
+        return size;
+    }
+
+    /**
+     * Solves a position in which both Pokemon are standing and leaves the outcome in win and loss.
+     * Side 0 is the gym Pokemon, side 1 the challenger.
+     */
+    private void solve(int side, int hp0, int res0, int hp1, int res1) {
+        if (!model.isStrong(0, res0) && !model.isStrong(1, res1)) {
+            win = region.win(side, hp0, hp1);
+            loss = region.loss(side, hp0, hp1);
+            return;
+        }
+        long key = key(side, hp0, res0, hp1, res1);
+        int slot = find(key);
+        if (keys[slot] == key) {
+            win = wins[slot];
+            loss = losses[slot];
+            return;
+        }
+
+        int attackerHp = side == 0 ? hp0 : hp1;
+        int attackerRes = side == 0 ? res0 : res1;
+        int defenderHp = side == 0 ? hp1 : hp0;
+        int moves = model.moveCount(side);
+        int rolls = model.rolls(side, attackerRes);
+        double winSum = 0;
+        double lossSum = 0;
+        for (int m = 0; m < moves; m++) {
+            int nextRes = model.resourceAfter(side, m, attackerRes);
+            int healedHp = model.hpAfterHeal(side, m, attackerHp);
+            for (int r = 0; r < rolls; r++) {
+                int hit = defenderHp - model.damage(side, m, attackerRes, r);
+                if (hit <= 0) {
+                    if (side == 0) {
+                        lossSum++;
+                    } else {
+                        winSum++;
+                    }
+                    continue;
+                }
+                if (side == 0) {
+                    solve(1, healedHp, nextRes, hit, res1);
+                } else {
+                    solve(0, hit, res0, healedHp, nextRes);
+                }
+                winSum += win;
+                lossSum += loss;
+            }
+        }
+        win = winSum / (moves * rolls);
+        loss = lossSum / (moves * rolls);
+        store(key, win, loss);
+    }
+
+    private int find(long key) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void store(long key, double winValue, double lossValue) {
+        if (size >= maxEntries) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = key;
+        wins[slot] = winValue;
+        losses[slot] = lossValue;
+    }
+
+    /**
+     * Packs a position: the types in 4 bits, the side to move in 1, both HP in 10 bits and both resources in 14.
+     * A resource that can never make strong attacks again is stored as 0, so positions that only differ in such
+     * a resource share their entry.
+     */
+    private long key(int side, int hp0, int res0, int hp1, int res1) {
+        return types << 49
+                | (long) side << 48
+                | (long) hp0 << 38
+                | (long) hp1 << 28
+                | resourceField(0, res0) << 14
+                | resourceField(1, res1);
+    }
+
+    private long resourceField(int side, int resource) {
+        if (!model.isStrong(side, resource)) {
+            return 0;
+        }
+        int field = resource + RESOURCE_OFFSET;
+        if (field >= 1 << RESOURCE_BITS) {
+            throw new IllegalStateException("Resource level out of the solver's range: " + resource);
+        }
+        return field;
+    }
+
+    private static int checkHp(int hp) {
+        if (hp >= 1 << HP_BITS) {
+            throw new IllegalArgumentException("HP too high for the solver: " + hp);
+        }
+        return hp;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * The chances of every position of a matchup in which both Pokemon only make weak attacks,
+     * for HP from 1 up to a limit per side.
+     */
+    private static final class WeakRegion {
+        private final int maxHp0;
+        private final int maxHp1;
+        private final double[] win;
+        private final double[] loss;
+        private final double[] winStep;
+        private final double[] lossStep;
+        // per side and move, the HP after healing for every HP, and the weak damage of every roll
+        private final int[][][] healed = new int[2][][];
+        private final int[][][] damage = new int[2][][];
+
+        private WeakRegion(DuelModel model, int maxHp0, int maxHp1) {
+            this.maxHp0 = maxHp0;
+            this.maxHp1 = maxHp1;
+            int states = 2 * (maxHp0 + 1) * (maxHp1 + 1);
+            win = new double[states];
+            loss = new double[states];
+            winStep = new double[states];
+            lossStep = new double[states];
+            for (int side = 0; side < 2; side++) {
+                int maxHp = side == 0 ? maxHp0 : maxHp1;
+                // any resource at or below half its maximum gives weak attacks
+                int weak = model.pokemonOf(side).getMaxResourceLevel() / 2;
+                int moves = model.moveCount(side);
+                healed[side] = new int[moves][maxHp + 1];
+                damage[side] = new int[moves][DuelModel.WEAK_ROLLS];
+                for (int m = 0; m < moves; m++) {
+                    for (int hp = 1; hp <= maxHp; hp++) {
+                        healed[side][m][hp] = Math.min(model.hpAfterHeal(side, m, hp), maxHp);
+                    }
+                    for (int r = 0; r < DuelModel.WEAK_ROLLS; r++) {
+                        damage[side][m][r] = model.damage(side, m, weak, r);
+                    }
+                }
+            }
+            solve();
+        }
+
+        private boolean covers(int hp0, int hp1) {
+            return hp0 <= maxHp0 && hp1 <= maxHp1;
+        }
+
+        private int index(int side, int hp0, int hp1) {
+            return (side * (maxHp0 + 1) + hp0) * (maxHp1 + 1) + hp1;
+        }
+
+        private double win(int side, int hp0, int hp1) {
+            return win[index(side, hp0, hp1)];
+        }
+
+        private double loss(int side, int hp0, int hp1) {
+            return loss[index(side, hp0, hp1)];
+        }
+
+        /**
+         * Repeats the averaging over all positions, lowest HP first so the outcomes near the end of a fight
+         * spread upwards in one sweep, until the chances settle.
+         * <p>
+         * Healing outweighs weak attacks below 100 HP, so such fights can drag on and the chances only creep up
+         * by a fixed ratio per sweep. Once that ratio is steady the rest of the creep is a geometric series, which
+         * is added in one go; the sweeps that follow correct whatever the jump got wrong.
+         *
+         * @throws IllegalStateException if the chances have not settled to within {@link #TOLERANCE} after
+         *                               {@value #MAX_SWEEPS} sweeps
+         */
+        private void solve() {
+            double previousChange = Double.NaN;
+            double previousRatio = Double.NaN;
+            double rate = Double.NaN;
+            int steady = 0;
+            double lastChange = Double.NaN;
+            for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+                double change = sweep();
+                lastChange = change;
+                if (change == 0 || change * rate / (1 - rate) <= TOLERANCE) {
+                    return;
+                }
+                double ratio = change / previousChange;
+                steady = Math.abs(ratio - previousRatio) < 1e-4 ? steady + 1 : 0;
+                if (steady == STEADY_SWEEPS && ratio < 1) {
+                    rate = ratio;
+                    extrapolate(rate / (1 - rate));
+                    steady = 0;
+                    ratio = Double.NaN;
+                    change = Double.NaN;
+                }
+                previousChange = change;
+                previousRatio = ratio;
+            }
+            throw new IllegalStateException("The weak attacks did not settle to within " + TOLERANCE + " after "
+                    + MAX_SWEEPS + " sweeps, the last sweep still changed a chance by " + lastChange);
+        }
+
+        private double sweep() {
+            double change = 0;
+            for (int total = 2; total <= maxHp0 + maxHp1; total++) {
+                for (int hp0 = Math.max(1, total - maxHp1); hp0 <= Math.min(maxHp0, total - 1); hp0++) {
+                    int hp1 = total - hp0;
+                    change = Math.max(change, update(1, hp0, hp1));
+                    change = Math.max(change, update(0, hp0, hp1));
+                }
+            }
+            return change;
+        }
+
+        private double update(int side, int hp0, int hp1) {
+            int attackerHp = side == 0 ? hp0 : hp1;
+            int defenderHp = side == 0 ? hp1 : hp0;
+            int[][] heals = healed[side];
+            int[][] hits = damage[side];
+            double winSum = 0;
+            double lossSum = 0;
+            for (int m = 0; m < hits.length; m++) {
+                int healedHp = heals[m][attackerHp];
+                for (int d : hits[m]) {
+                    int hit = defenderHp - d;
+                    if (hit <= 0) {
+                        if (side == 0) {
+                            lossSum++;
+                        } else {
+                            winSum++;
+                        }
+                    } else {
+                        int next = side == 0 ? index(1, healedHp, hit) : index(0, hit, healedHp);
+                        winSum += win[next];
+                        lossSum += loss[next];
+                    }
+                }
+            }
+            int i = index(side, hp0, hp1);
+            int outcomes = hits.length * DuelModel.WEAK_ROLLS;
+            double newWin = winSum / outcomes;
+            double newLoss = lossSum / outcomes;
+            winStep[i] = newWin - win[i];
+            lossStep[i] = newLoss - loss[i];
+            win[i] = newWin;
+            loss[i] = newLoss;
+            return Math.max(Math.abs(winStep[i]), Math.abs(lossStep[i]));
+        }
+
+        private void extrapolate(double factor) {
+            for (int i = 0; i < win.length; i++) {
+                win[i] += winStep[i] * factor;
+                loss[i] += lossStep[i] * factor;
+            }
+        }
+    }
+}
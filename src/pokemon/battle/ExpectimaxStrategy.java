@@ -0,0 +1,351 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.PokemonType;
+import pokemon.types.MoveRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that picks its attack by looking ahead, for a gym owner that plays better than at random.
+ * <p>
+ * The search is an expectimax over the {@link DuelModel} of the two fighting Pokemon: this side picks the move with
+ * the best expected outcome, every damage roll is a chance node with equally likely outcomes, and the opponent is
+ * expected to pick its moves at random, like a player who does not know the type chart. A win counts as 1, a loss as
+ * -1, and a position at the search horizon is scored by the difference in HP.
+ * <p>
+ * The search deepens one turn at a time until the time budget of a move is used up, and the best move of the
+ * deepest finished search is played. Each deepening searches the moves of this side in parallel on a fork-join pool.
+ * One turn ahead is always searched, on the calling thread, so a move is chosen within the budget plus a few
+ * microseconds even when the pool is busy with other sessions. Positions are cached in a transposition table keyed
+ * on the types, HP and resource levels of both Pokemon, shared by all searches of this strategy.
+ * <p>
+ * Because the depth reached depends on the time available, the choices of this strategy are not repeatable.
+ * The Pokemon it sends into battle are picked at random, like {@link RandomStrategy}.
+ */
+public class ExpectimaxStrategy implements BattleStrategy {
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_TABLE_BITS = 18;
+
+    private static final int TYPES = PokemonType.values().length;
+    private static final int NODES_PER_CLOCK_CHECK = 1024;
+    private static final int FIELD_BITS = 15;
+    private static final int FIELD_MIN = -(1 << (FIELD_BITS - 1));
+    private static final int FIELD_MAX = (1 << (FIELD_BITS - 1)) - 1;
+    // never a real key, whose HP fields are above 0 because both Pokemon are standing
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final RandomGenerator random;
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final int maxDepth;
+    private final DuelModel[] models = new DuelModel[TYPES * TYPES];
+    // lockless table: slot i holds key ^ data in keys and data in values, a torn entry fails the key check
+    private final AtomicLongArray keys;
+    private final AtomicLongArray values;
+    private final int mask;
+
+    public ExpectimaxStrategy(RandomGenerator random) {
+        this(random, ForkJoinPool.commonPool(), DEFAULT_BUDGET_NANOS, DEFAULT_MAX_DEPTH, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Constructs an ExpectimaxStrategy.
+     *
+     * @param random      the generator that picks the Pokemon to send into battle
+     * @param pool        the pool the moves are searched on
+     * @param budgetNanos the time one choice of move may take
+     * @param maxDepth    the number of turns ahead after which the search stops deepening
+     * @param tableBits   the transposition table has 2 to the power of this number of entries of 16 bytes
+     */
+    public ExpectimaxStrategy(RandomGenerator random, ForkJoinPool pool, long budgetNanos, int maxDepth,
+                              int tableBits) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
+        if (tableBits < 1 || tableBits > 28) {
+            throw new IllegalArgumentException("tableBits must be between 1 and 28: " + tableBits);
+        }
+        this.random = random;
+        this.pool = pool;
+        this.budgetNanos = budgetNanos;
+        this.maxDepth = maxDepth;
+        this.keys = new AtomicLongArray(1 << tableBits);
+        this.values = new AtomicLongArray(1 << tableBits);
+        this.mask = (1 << tableBits) - 1;
+    }
+
+    @Override
+    public Pokemon choosePokemon(PokemonTrainer trainer, Pokemon opponent) {
+        return trainer.randomAlivePokemon(random);
+    }
+
+    @Override
+    public String chooseAttack(Pokemon attacker, Pokemon defender) {
+        return MoveRegistry.nameOf(chooseMove(attacker, defender));
+    }
+
+    @Override
+    public int chooseMove(Pokemon attacker, Pokemon defender) {
+        long deadline = System.nanoTime() + budgetNanos;
+        DuelModel model = modelOf(attacker, defender);
+        int hp = attacker.getHp();
+        int resource = attacker.getResourceLevel();
+        int opponentHp = defender.getHp();
+        int opponentResource = defender.getResourceLevel();
+
+        // one turn ahead is cheap enough to always finish, so there is an answer whatever the clock says
+        Search first = new Search(model, Long.MAX_VALUE);
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int m = 0; m < model.moveCount(0); m++) {
+            double value = first.attack(m, 1, hp, resource, opponentHp, opponentResource);
+            if (value > bestValue) {
+                bestValue = value;
+                best = m;
+            }
+        }
+
+        for (int depth = 2; depth <= maxDepth && first.reachedHorizon; depth++) {
+            List<MoveTask> tasks = new ArrayList<>(model.moveCount(0));
+            for (int m = 0; m < model.moveCount(0); m++) {
+                tasks.add(new MoveTask(new Search(model, deadline), m, depth, hp, resource, opponentHp,
+                        opponentResource));
+            }
+            // the calling thread searches the first move itself, so it keeps working until the deadline
+            // instead of depending on a timed wake-up while the pool is busy
+            for (int m = 1; m < tasks.size(); m++) {
+                pool.execute(tasks.get(m));
+            }
+            int deepBest = 0;
+            double deepValue = Double.NEGATIVE_INFINITY;
+            boolean reachedHorizon = false;
+            try {
+                for (int m = 0; m < tasks.size(); m++) {
+                    MoveTask task = tasks.get(m);
+                    double value;
+                    if (m == 0) {
+                        value = task.compute();
+                    } else {
+                        value = task.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    }
+                    reachedHorizon |= task.search.reachedHorizon;
+                    if (value > deepValue) {
+                        deepValue = value;
+                        deepBest = m;
+                    }
+                }
+            } catch (OutOfTime | TimeoutException | ExecutionException e) {
+                // out of time, the tasks that still run see the deadline and stop by themselves
+                cancel(tasks);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(tasks);
+                break;
+            }
+            best = deepBest;
+            first.reachedHorizon = reachedHorizon;
+        }
+        return model.moveId(0, best);
+    }
+
+    private static void cancel(List<MoveTask> tasks) {
+        for (ForkJoinTask<Double> task : tasks) {
+            task.cancel(false);
+        }
+    }
+
+    private DuelModel modelOf(Pokemon attacker, Pokemon defender) {
+        int index = attacker.getTypeOrdinal() * TYPES + defender.getTypeOrdinal();
+        DuelModel model = models[index];
+        if (model == null) {
+            // two threads may both build one, which is harmless
+            model = new DuelModel(attacker, defender);
+            models[index] = model;
+        }
+        return model;
+    }
+
+    /**
+     * Searches one move of this side to a fixed depth.
+     */
+    private final class MoveTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int move;
+        private final int depth;
+        private final int hp;
+        private final int resource;
+        private final int opponentHp;
+        private final int opponentResource;
+
+        private MoveTask(Search search, int move, int depth, int hp, int resource, int opponentHp,
+                         int opponentResource) {
+            this.search = search;
+            this.move = move;
+            this.depth = depth;
+            this.hp = hp;
+            this.resource = resource;
+            this.opponentHp = opponentHp;
+            this.opponentResource = opponentResource;
+        }
+
+        @Override
+        protected Double compute() {
+            return search.attack(move, depth, hp, resource, opponentHp, opponentResource);
+        }
+    }
+
+    /**
+     * Thrown when a search runs past its deadline. It is thrown often, so it has no stack trace.
+     */
+    private static final class OutOfTime extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final OutOfTime INSTANCE = new OutOfTime();
+
+        private OutOfTime() {
+            super("out of time", null, false, false);
+        }
+    }
+
+    /**
+     * One search on one thread. Side 0 is this strategy's Pokemon, side 1 the opponent.
+     */
+    private final class Search {
+        private final DuelModel model;
+        private final long deadline;
+        private final boolean drains0;
+        private final boolean drains1;
+        private final long types;
+        private int nodes;
+        private boolean reachedHorizon;
+
+        private Search(DuelModel model, long deadline) {
+            this.model = model;
+            this.deadline = deadline;
+            this.drains0 = model.onlyDrains(0);
+            this.drains1 = model.onlyDrains(1);
+            this.types = (long) model.pokemonOf(0).getTypeOrdinal() * TYPES + model.pokemonOf(1).getTypeOrdinal();
+        }
+
+        /**
+         * Returns the value of the position with this side to move and both Pokemon standing.
+         */
+        private double choose(int depth, int hp, int resource, int opponentHp, int opponentResource) {
+            if (++nodes % NODES_PER_CLOCK_CHECK == 0 && System.nanoTime() > deadline) {
+                throw OutOfTime.INSTANCE;
+            }
+            if (depth == 0) {
+                reachedHorizon = true;
+                return evaluate(hp, opponentHp);
+            }
+            long key = key(hp, resource, opponentHp, opponentResource);
+            int slot = (int) (mix(key) & mask);
+            if (key != NO_KEY) {
+                long data = values.getOpaque(slot);
+                if ((keys.getOpaque(slot) ^ data) == key && (int) (data & 0xFF) >= depth) {
+                    return Float.intBitsToFloat((int) (data >>> 32));
+                }
+            }
+
+            double best = Double.NEGATIVE_INFINITY;
+            for (int m = 0; m < model.moveCount(0); m++) {
+                best = Math.max(best, attack(m, depth, hp, resource, opponentHp, opponentResource));
+            }
+
+            if (key != NO_KEY) {
+                long entry = ((long) Float.floatToRawIntBits((float) best) << 32) | depth;
+                values.setOpaque(slot, entry);
+                keys.setOpaque(slot, key ^ entry);
+            }
+            return best;
+        }
+
+        /**
+         * Returns the expected value of attacking with move m, over all damage rolls and all replies.
+         */
+        private double attack(int m, int depth, int hp, int resource, int opponentHp, int opponentResource) {
+            int rolls = model.rolls(0, resource);
+            int nextResource = model.resourceAfter(0, m, resource);
+            int healedHp = model.hpAfterHeal(0, m, hp);
+            double sum = 0;
+            for (int r = 0; r < rolls; r++) {
+                int hit = opponentHp - model.damage(0, m, resource, r);
+                sum += hit <= 0 ? 1 : reply(depth, healedHp, nextResource, hit, opponentResource);
+            }
+            return sum / rolls;
+        }
+
+        /**
+         * Returns the expected value of the opponent's reply, a random move with a random roll.
+         */
+        private double reply(int depth, int hp, int resource, int opponentHp, int opponentResource) {
+            int moves = model.moveCount(1);
+            int rolls = model.rolls(1, opponentResource);
+            double sum = 0;
+            for (int j = 0; j < moves; j++) {
+                int nextResource = model.resourceAfter(1, j, opponentResource);
+                int healedHp = model.hpAfterHeal(1, j, opponentHp);
+                for (int r = 0; r < rolls; r++) {
+                    int hit = hp - model.damage(1, j, opponentResource, r);
+                    sum += hit <= 0 ? -1 : choose(depth - 1, hit, resource, healedHp, nextResource);
+                }
+            }
+            return sum / (moves * rolls);
+        }
+
+        /**
+         * Scores a position at the search horizon between -1 and 1 by how much of the HP left is this side's.
+         */
+        private double evaluate(int hp, int opponentHp) {
+            return (double) (hp - opponentHp) / (hp + opponentHp);
+        }
+
+        /**
+         * Packs a position into a key: both types in 4 bits, then HP and resource of both sides in 15 bits each.
+         * A resource that can never make strong attacks again is stored as the lowest value, so those positions
+         * share their entries. A position with a value that does not fit in its field gets {@link #NO_KEY} and is
+         * searched without the table, since clamping it would share an entry with a different position.
+         */
+        private long key(int hp, int resource, int opponentHp, int opponentResource) {
+            int r0 = drains0 && !model.isStrong(0, resource) ? FIELD_MIN : resource;
+            int r1 = drains1 && !model.isStrong(1, opponentResource) ? FIELD_MIN : opponentResource;
+            if (!fits(hp) || !fits(opponentHp) || !fits(r0) || !fits(r1)) {
+                return NO_KEY;
+            }
+            return types << 60
+                    | field(hp) << 45
+                    | field(opponentHp) << 30
+                    | field(r0) << 15
+                    | field(r1);
+        }
+
+        private boolean fits(int value) {
+            return value >= FIELD_MIN && value <= FIELD_MAX;
+        }
+
+        private long field(int value) {
+            return value - FIELD_MIN;
+        }
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,104 @@
+package pokemon.battle;
+
+/**
+ * The estimated outcome of a matchup, based on a number of simulated battles.
+ * Win rates are from the challenger's point of view and come with a 95% Wilson score interval,
+ * the mean number of turns comes with a 95% normal confidence interval.
+ */
+public class MatchupEstimate {
+    private static final double Z_95 = 1.959963984540054;
+
+    private final long battles;
+    private final long wins;
+    private final long losses;
+    private final long draws;
+    private final double meanTurns;
+    private final double turnsStdDev;
+
+    /**
+     * Constructs a MatchupEstimate from the totals of the simulated battles.
+     *
+     * @param battles     the number of battles played
+     * @param wins        the number of battles the challenger won
+     * @param losses      the number of battles the challenger lost
+     * @param draws       the number of battles that hit the turn limit
+     * @param turns       the sum of the turns over all battles
+     * @param turnsSquared the sum of the squared turns over all battles
+     */
+    public MatchupEstimate(long battles, long wins, long losses, long draws, long turns, double turnsSquared) {
+        this.battles = battles;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+        this.meanTurns = battles == 0 ? 0 : (double) turns / battles;
+        double variance = battles < 2 ? 0 : (turnsSquared - battles * meanTurns * meanTurns) / (battles - 1);
+        this.turnsStdDev = Math.sqrt(Math.max(0, variance));
+    }
+
+    public long getBattles() {
+        return battles;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public double getWinRate() {
+        return battles == 0 ? 0 : (double) wins / battles;
+    }
+
+    public double getWinRateLower() {
+        return wilson(-1);
+    }
+
+    public double getWinRateUpper() {
+        return wilson(1);
+    }
+
+    public double getMeanTurns() {
+        return meanTurns;
+    }
+
+    public double getMeanTurnsLower() {
+        return meanTurns - turnsMargin();
+    }
+
+    public double getMeanTurnsUpper() {
+        return meanTurns + turnsMargin();
+    }
+
+    private double turnsMargin() {
+        return battles == 0 ? 0 : Z_95 * turnsStdDev / Math.sqrt(battles);
+    }
+
+    /**
+     * Calculates one bound of the Wilson score interval, which stays sensible for win rates close to 0 or 1.
+     *
+     * @param sign -1 for the lower bound, 1 for the upper bound
+     * @return the bound, between 0 and 1
+     */
+    private double wilson(int sign) {
+        if (battles == 0) {
+            return sign < 0 ? 0 : 1;
+        }
+        double p = getWinRate();
+        double z2 = Z_95 * Z_95;
+        double centre = p + z2 / (2 * battles);
+        double margin = Z_95 * Math.sqrt(p * (1 - p) / battles + z2 / (4.0 * battles * battles));
+        return Math.min(1, Math.max(0, (centre + sign * margin) / (1 + z2 / battles)));
+    }
+
+    public String toString() {
+        return String.format("win rate %.4f [%.4f, %.4f], mean turns %.2f [%.2f, %.2f], %d battles (%d draws)",
+                getWinRate(), getWinRateLower(), getWinRateUpper(),
+                meanTurns, getMeanTurnsLower(), getMeanTurnsUpper(), battles, draws);
+    }
+}
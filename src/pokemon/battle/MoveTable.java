@@ -0,0 +1,197 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.types.MoveRegistry;
+import pokemon.types.PokemonFactory;
+
+/**
+ * The best attack for every attacking type, defending type and band of the attacker's resource level, worked out
+ * once from the moves in {@link MoveRegistry}, so choosing an attack is a table lookup.
+ * <p>
+ * An attack is best when it deals the most damage in expectation, counting the attacks that follow it: using up
+ * resource now can make the next attacks weak. The damage of every attack is the mean of its rolls in the
+ * {@link DuelModel}, and the damage of the attack k attacks ahead counts for the discount to the power of k,
+ * the discount being the chance that the fight goes on for one more attack. Heals are not counted, since they
+ * depend on the HP of the attacker.
+ * <p>
+ * Attacks are weak at resource levels up to half of the maximum and strong above. The resource level is cut into
+ * bands as wide as the greatest common divisor of the resource changes of the type's attacks, starting just
+ * above the halfway mark, so every level in a band leads to the same strong and weak attacks whatever is played,
+ * and the table is exact for every level in it. Levels below 0 are looked up as 0, levels above the maximum as
+ * the maximum. A MoveTable does not change and can be shared between threads.
+ */
+public final class MoveTable {
+    public static final double DEFAULT_DISCOUNT = 0.95;
+
+    private static final int TYPES = PokemonType.values().length;
+    private static final double TOLERANCE = 1e-9;
+    private static final int MAX_SWEEPS = 100_000;
+
+    // indexed by attacking type ordinal
+    private final int[] bandStart;
+    private final int[] bandWidth;
+    private final int[] lowestBand;
+    // move ids, indexed by attacking type ordinal * TYPES + defending type ordinal, then by band
+    private final int[][] best;
+
+    /**
+     * Constructs a MoveTable for every pair of types.
+     *
+     * @param discount the weight of the damage of the next attack relative to this one, below 1
+     */
+    public MoveTable(double discount) {
+        if (discount < 0 || discount >= 1) {
+            throw new IllegalArgumentException("discount must be at least 0 and below 1: " + discount);
+        }
+        bandStart = new int[TYPES];
+        bandWidth = new int[TYPES];
+        lowestBand = new int[TYPES];
+        best = new int[TYPES * TYPES][];
+        Pokemon[] prototypes = new Pokemon[TYPES];
+        for (int type = 0; type < TYPES; type++) {
+            prototypes[type] = PokemonFactory.create(PokemonType.fromOrdinal(type), "", 1, 1, null, null);
+            int half = prototypes[type].getMaxResourceLevel() / 2;
+            int width = 0;
+            for (int m = 0; m < MoveRegistry.movesOf(type); m++) {
+                width = gcd(width, Math.abs(MoveRegistry.resourceDeltaOf(MoveRegistry.moveOf(type, m))));
+            }
+            bandStart[type] = half + 1;
+            // attacks that never change the resource leave it strong or weak for good, two bands tell them apart
+            bandWidth[type] = width == 0 ? half + 1 : width;
+            lowestBand[type] = Math.floorDiv(-bandStart[type], bandWidth[type]);
+        }
+        for (int attacker = 0; attacker < TYPES; attacker++) {
+            for (int defender = 0; defender < TYPES; defender++) {
+                best[attacker * TYPES + defender] =
+                        solve(new DuelModel(prototypes[attacker], prototypes[defender]), attacker, discount);
+            }
+        }
+    }
+
+    /**
+     * Returns the table for {@link #DEFAULT_DISCOUNT}, built the first time it is asked for.
+     *
+     * @return the shared table
+     */
+    public static MoveTable shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        private static final MoveTable INSTANCE = new MoveTable(DEFAULT_DISCOUNT);
+    }
+
+    /**
+     * Works out the best move of every band for side 0 of a model, by value iteration over the bands.
+     */
+    private int[] solve(DuelModel model, int type, double discount) {
+        int highest = bandOf(type, model.pokemonOf(0).getMaxResourceLevel());
+        int bands = highest - lowestBand[type] + 1;
+        int moves = model.moveCount(0);
+        double[] strong = new double[moves];
+        double[] weak = new double[moves];
+        int[] step = new int[moves];
+        for (int m = 0; m < moves; m++) {
+            strong[m] = meanDamage(model, m, bandStart[type]);
+            weak[m] = meanDamage(model, m, bandStart[type] - 1);
+            step[m] = MoveRegistry.resourceDeltaOf(model.moveId(0, m)) / bandWidth[type];
+        }
+
+        double[] value = new double[bands];
+        int[] bestMove = new int[bands];
+        // resource mostly goes down, so sweeping from the lowest band up settles most tables in one sweep
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            double change = 0;
+            for (int b = 0; b < bands; b++) {
+                double[] damage = b + lowestBand[type] >= 0 ? strong : weak;
+                double bestValue = Double.NEGATIVE_INFINITY;
+                for (int m = 0; m < moves; m++) {
+                    int next = Math.max(0, Math.min(bands - 1, b + step[m]));
+                    double v = damage[m] + discount * value[next];
+                    if (v > bestValue + TOLERANCE) {
+                        bestValue = v;
+                        bestMove[b] = m;
+                    }
+                }
+                change = Math.max(change, Math.abs(bestValue - value[b]));
+                value[b] = bestValue;
+            }
+            if (change <= TOLERANCE) {
+                break;
+            }
+        }
+        for (int b = 0; b < bands; b++) {
+            bestMove[b] = model.moveId(0, bestMove[b]);
+        }
+        return bestMove;
+    }
+
+    private static double meanDamage(DuelModel model, int m, int resource) {
+        int rolls = model.rolls(0, resource);
+        double sum = 0;
+        for (int roll = 0; roll < rolls; roll++) {
+            sum += model.damage(0, m, resource, roll);
+        }
+        return sum / rolls;
+    }
+
+    private int bandOf(int type, int resource) {
+        return Math.floorDiv(resource - bandStart[type], bandWidth[type]);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Returns the best move for an attacker of the given type and resource level against the given type.
+     *
+     * @param attackerType the ordinal of the attacking type
+     * @param defenderType the ordinal of the defending type
+     * @param resource     the resource level of the attacker
+     * @return the {@link MoveRegistry} move id
+     */
+    public int bestMove(int attackerType, int defenderType, int resource) {
+        int[] bands = best[attackerType * TYPES + defenderType];
+        int band = bandOf(attackerType, resource) - lowestBand[attackerType];
+        return bands[Math.max(0, Math.min(bands.length - 1, band))];
+    }
+
+    /**
+     * Returns the best move for a Pokemon against another, at its current resource level.
+     *
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that receives the attack
+     * @return the {@link MoveRegistry} move id
+     */
+    public int bestMove(Pokemon attacker, Pokemon defender) {
+        return bestMove(attacker.getTypeOrdinal(), defender.getTypeOrdinal(), attacker.getResourceLevel());
+    }
+
+    /**
+     * Returns the name of the best attack for a Pokemon against another, as a hint for a player.
+     *
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that receives the attack
+     * @return the name of the attack
+     */
+    public String bestAttack(Pokemon attacker, Pokemon defender) {
+        return MoveRegistry.nameOf(bestMove(attacker, defender));
+    }
+
+    /**
+     * Returns the number of resource bands of an attacking type.
+     *
+     * @param attackerType the ordinal of the attacking type
+     * @return the number of bands in the table
+     */
+    public int bandCount(int attackerType) {
+        return best[attackerType * TYPES].length;
+    }
+}
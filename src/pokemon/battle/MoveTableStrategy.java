@@ -0,0 +1,48 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.types.MoveRegistry;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that attacks with the best move from a {@link MoveTable}, for a gym owner that plays better than at
+ * random at the cost of one table lookup per attack. Unlike {@link ExpectimaxStrategy} it does not look at the HP
+ * of either Pokemon, and its choices are repeatable.
+ * The Pokemon it sends into battle are picked at random, like {@link RandomStrategy}.
+ */
+public class MoveTableStrategy implements BattleStrategy {
+    private final RandomGenerator random;
+    private final MoveTable table;
+
+    public MoveTableStrategy(RandomGenerator random) {
+        this(random, MoveTable.shared());
+    }
+
+    /**
+     * Constructs a MoveTableStrategy.
+     *
+     * @param random the generator that picks the Pokemon to send into battle
+     * @param table  the table the attacks are looked up in
+     */
+    public MoveTableStrategy(RandomGenerator random, MoveTable table) {
+        this.random = random;
+        this.table = table;
+    }
+
+    @Override
+    public Pokemon choosePokemon(PokemonTrainer trainer, Pokemon opponent) {
+        return trainer.randomAlivePokemon(random);
+    }
+
+    @Override
+    public String chooseAttack(Pokemon attacker, Pokemon defender) {
+        return MoveRegistry.nameOf(chooseMove(attacker, defender));
+    }
+
+    @Override
+    public int chooseMove(Pokemon attacker, Pokemon defender) {
+        return table.bestMove(attacker, defender);
+    }
+}
@@ -0,0 +1,153 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.event.BattleEventSink;
+import pokemon.event.NoOpEventSink;
+import pokemon.types.MoveRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays a raid, in which many challengers attack one Pokemon of a gym owner at the same time.
+ * <p>
+ * Every challenger fights on its own thread of the given executor. A challenger attacks the boss with its Pokemon
+ * one after another, with a random move each turn, and the boss strikes back at the Pokemon that attacked it.
+ * All challengers change the HP and resource of the same boss without a lock, see {@link Pokemon}; the one attack
+ * that makes the boss faint ends the raid for everybody. A challenger gives up when its Pokemon have all fainted
+ * or when it has used up its turns.
+ * <p>
+ * Each challenger rolls its damage with its own generator split off the raid seed. The boss rolls its damage with
+ * the generator of the thread it strikes back on, so, unlike a {@link BattleEngine} battle, a raid does not play out
+ * the same way twice. Like the engine, a raid works directly on the Pokemon it is given.
+ */
+public class RaidBattle {
+    public static final int DEFAULT_MAX_TURNS = 1000;
+
+    private final int maxTurns;
+    private final BattleEventSink events;
+
+    public RaidBattle() {
+        this(DEFAULT_MAX_TURNS);
+    }
+
+    public RaidBattle(int maxTurns) {
+        this(maxTurns, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Constructs a RaidBattle in which every challenger gives up after the given number of turns.
+     *
+     * @param maxTurns the maximum number of turns of one challenger
+     * @param events   the sink the fighting Pokemon report to, which must accept messages from several threads
+     */
+    public RaidBattle(int maxTurns, BattleEventSink events) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("maxTurns must be positive: " + maxTurns);
+        }
+        this.maxTurns = maxTurns;
+        this.events = events;
+    }
+
+    /**
+     * Lets all challengers attack the boss at once and waits until the boss faints or every challenger gave up.
+     *
+     * @param boss        the Pokemon of the gym owner that is raided
+     * @param challengers the trainers that attack the boss, each with Pokemon of its own
+     * @param executor    the executor that runs one task per challenger
+     * @param seed        the seed the generators of the challengers are derived from
+     * @return the result of the raid
+     * @throws InterruptedException if the thread is interrupted while waiting for the challengers
+     */
+    public RaidResult raid(Pokemon boss, List<? extends PokemonTrainer> challengers, ExecutorService executor,
+                           long seed) throws InterruptedException {
+        boss.setRandom(null);
+        boss.setEvents(events);
+        Raid raid = new Raid(boss);
+        SplittableRandom random = new SplittableRandom(seed);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> fights = new ArrayList<>(challengers.size());
+        for (PokemonTrainer challenger : challengers) {
+            SplittableRandom challengerRandom = random.split();
+            fights.add(CompletableFuture.supplyAsync(() -> {
+                awaitStart(start);
+                return fight(raid, challenger, challengerRandom);
+            }, executor));
+        }
+        // let everybody loose at once, so the first challengers do not finish before the last are started
+        start.countDown();
+
+        long attacks = 0;
+        for (CompletableFuture<Integer> fight : fights) {
+            try {
+                attacks += fight.join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("A challenger failed", e.getCause());
+            }
+        }
+        return new RaidResult(boss, raid.finisher, attacks);
+    }
+
+    /**
+     * Lets one challenger attack the boss until the raid is over or the challenger gives up.
+     *
+     * @return the number of attacks the challenger made
+     */
+    private int fight(Raid raid, PokemonTrainer challenger, SplittableRandom random) {
+        Pokemon boss = raid.boss;
+        int turns = 0;
+        for (Pokemon pokemon : challenger.getPokemons()) {
+            pokemon.setRandom(random);
+            pokemon.setEvents(events);
+            while (pokemon.getHp() > 0 && turns < maxTurns) {
+                if (raid.finisher != null) {
+                    return turns;
+                }
+                turns++;
+                int type = pokemon.getTypeOrdinal();
+                if (pokemon.useMove(MoveRegistry.moveOf(type, random.nextInt(MoveRegistry.movesOf(type))), boss)) {
+                    // only one attack can take the boss from above 0 HP to 0 or below
+                    raid.finisher = challenger;
+                    return turns;
+                }
+                if (raid.finisher != null) {
+                    return turns;
+                }
+                int bossType = boss.getTypeOrdinal();
+                int bossMove = MoveRegistry.moveOf(bossType,
+                        ThreadLocalRandom.current().nextInt(MoveRegistry.movesOf(bossType)));
+                boss.useMove(bossMove, pokemon);
+            }
+        }
+        return turns;
+    }
+
+    private static void awaitStart(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before the raid started", e);
+        }
+    }
+
+    /**
+     * The state all challengers of one raid share.
+     */
+    private static final class Raid {
+        private final Pokemon boss;
+        private volatile PokemonTrainer finisher;
+
+        private Raid(Pokemon boss) {
+            this.boss = boss;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+
+/**
+ * The outcome of a raid played by {@link RaidBattle}.
+ */
+public class RaidResult {
+    private final Pokemon boss;
+    private final PokemonTrainer finisher;
+    private final long attacks;
+
+    /**
+     * Constructs a RaidResult.
+     *
+     * @param boss     the Pokemon that was raided
+     * @param finisher the challenger whose attack made the boss faint, or null when the boss held out
+     * @param attacks  the number of attacks all challengers made together
+     */
+    public RaidResult(Pokemon boss, PokemonTrainer finisher, long attacks) {
+        this.boss = boss;
+        this.finisher = finisher;
+        this.attacks = attacks;
+    }
+
+    public Pokemon getBoss() {
+        return boss;
+    }
+
+    public PokemonTrainer getFinisher() {
+        return finisher;
+    }
+
+    public long getAttacks() {
+        return attacks;
+    }
+
+    public boolean isDefeated() {
+        return finisher != null;
+    }
+
+    public String toString() {
+        if (!isDefeated()) {
+            return boss.getName() + " held out against " + attacks + " attacks";
+        }
+        return finisher.getName() + " defeated " + boss.getName() + " after " + attacks + " attacks";
+    }
+}
@@ -0,0 +1,35 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.types.MoveRegistry;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that picks a random Pokemon that can still fight and a random attack,
+ * the same way the gym owner plays in {@link pokemon.PokemonGymImpl}. It never changes Pokemon voluntarily.
+ */
+public class RandomStrategy implements BattleStrategy {
+    private final RandomGenerator random;
+
+    public RandomStrategy(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public Pokemon choosePokemon(PokemonTrainer trainer, Pokemon opponent) {
+        return trainer.randomAlivePokemon(random);
+    }
+
+    @Override
+    public String chooseAttack(Pokemon attacker, Pokemon defender) {
+        return MoveRegistry.nameOf(chooseMove(attacker, defender));
+    }
+
+    @Override
+    public int chooseMove(Pokemon attacker, Pokemon defender) {
+        int type = attacker.getTypeOrdinal();
+        return MoveRegistry.moveOf(type, random.nextInt(MoveRegistry.movesOf(type)));
+    }
+}
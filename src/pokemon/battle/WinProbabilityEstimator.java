@@ -0,0 +1,135 @@
+package pokemon.battle;
+
+import pokemon.Pokemon;
+import pokemon.PokemonGymOwner;
+import pokemon.PokemonTrainer;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Estimates how likely a Pokemon is to beat another one by playing many random battles in parallel.
+ * <p>
+ * The battles are split over a fork-join pool. Every leaf task plays on its own copies of the two Pokemon
+ * and with its own generator split off a {@link SplittableRandom}. The estimate is therefore repeatable for a seed,
+ * the Pokemon that are passed in are never changed and workers do not share any mutable state.
+ */
+public class WinProbabilityEstimator {
+    private static final int BATTLES_PER_TASK = 2048;
+
+    private final ForkJoinPool pool;
+    private final BattleEngine engine;
+
+    public WinProbabilityEstimator() {
+        this(ForkJoinPool.commonPool(), new BattleEngine());
+    }
+
+    /**
+     * Constructs a WinProbabilityEstimator that runs its battles on the given pool.
+     *
+     * @param pool   the pool the battles are played on
+     * @param engine the engine that plays each battle
+     */
+    public WinProbabilityEstimator(ForkJoinPool pool, BattleEngine engine) {
+        this.pool = pool;
+        this.engine = engine;
+    }
+
+    /**
+     * Plays the given number of battles between the two Pokemon, with both sides choosing random attacks.
+     *
+     * @param challenger the Pokemon of the challenger
+     * @param gymPokemon the Pokemon of the gym owner, which attacks first
+     * @param battles    the number of battles to play
+     * @param seed       the seed the random generators of all workers are derived from
+     * @return the estimated outcome, from the challenger's point of view
+     */
+    public MatchupEstimate estimate(Pokemon challenger, Pokemon gymPokemon, int battles, long seed) {
+        if (battles <= 0) {
+            throw new IllegalArgumentException("battles must be positive: " + battles);
+        }
+        // take the snapshot up front, so later changes to the originals do not leak into running workers
+        Tally tally = pool.invoke(new BattleTask(challenger.copy(), gymPokemon.copy(), battles, new SplittableRandom(seed)));
+        return new MatchupEstimate(battles, tally.wins, tally.losses, tally.draws, tally.turns, tally.turnsSquared);
+    }
+
+    public MatchupEstimate estimate(Pokemon challenger, Pokemon gymPokemon, int battles) {
+        return estimate(challenger, gymPokemon, battles, System.nanoTime());
+    }
+
+    /**
+     * The running totals of a group of battles.
+     */
+    private static final class Tally {
+        private long wins;
+        private long losses;
+        private long draws;
+        private long turns;
+        private double turnsSquared;
+
+        private Tally add(Tally other) {
+            wins += other.wins;
+            losses += other.losses;
+            draws += other.draws;
+            turns += other.turns;
+            turnsSquared += other.turnsSquared;
+            return this;
+        }
+    }
+
+    private final class BattleTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final Pokemon challenger;
+        private final Pokemon gymPokemon;
+        private final int battles;
+        private final SplittableRandom random;
+
+        private BattleTask(Pokemon challenger, Pokemon gymPokemon, int battles, SplittableRandom random) {
+            this.challenger = challenger;
+            this.gymPokemon = gymPokemon;
+            this.battles = battles;
+            this.random = random;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (battles <= BATTLES_PER_TASK) {
+                return play();
+            }
+            int half = battles / 2;
+            BattleTask left = new BattleTask(challenger, gymPokemon, half, random.split());
+            BattleTask right = new BattleTask(challenger, gymPokemon, battles - half, random.split());
+            left.fork();
+            Tally tally = right.compute();
+            return tally.add(left.join());
+        }
+
+        private Tally play() {
+            Tally tally = new Tally();
+            // one generator per leaf, only used by the thread running this leaf
+            SplittableRandom rng = random.split();
+            BattleStrategy strategy = new RandomStrategy(rng);
+
+            for (int i = 0; i < battles; i++) {
+                // the templates are shared between tasks and only ever read, each battle fights fresh copies
+                PokemonTrainer player = new PokemonTrainer("challenger", List.of(challenger.copy()));
+                PokemonGymOwner owner = new PokemonGymOwner("gym", "simulation", List.of(gymPokemon.copy()));
+                BattleResult result = engine.battle(player, strategy, owner, strategy, rng);
+
+                if (result.isDraw()) {
+                    tally.draws++;
+                } else if (result.getWinner() == player) {
+                    tally.wins++;
+                } else {
+                    tally.losses++;
+                }
+                tally.turns += result.getTurns();
+                tally.turnsSquared += (double) result.getTurns() * result.getTurns();
+            }
+            return tally;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package pokemon.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * A small benchmark runner: warms an operation up, then measures its throughput and the bytes it allocates.
+ * <p>
+ * Every operation returns an int that is folded into a volatile field, so the JIT cannot remove the work.
+ * Allocations are read from the HotSpot thread allocation counter, which is what the JMH GC profiler
+ * reports as gc.alloc.rate.norm.
+ */
+public class Benchmark {
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads;
+
+    private volatile int sink;
+
+    /**
+     * An operation under test.
+     */
+    public interface Operation {
+        /**
+         * Runs the operation once.
+         *
+         * @return any value derived from the work, so it is not optimised away
+         */
+        int run();
+    }
+
+    public Benchmark() {
+        this(5, 5, 1_000_000_000L);
+    }
+
+    /**
+     * Constructs a Benchmark.
+     *
+     * @param warmupIterations      the number of iterations that are run and thrown away
+     * @param measurementIterations the number of iterations that are reported
+     * @param iterationNanos        how long one iteration runs, in nanoseconds
+     */
+    public Benchmark(int warmupIterations, int measurementIterations, long iterationNanos) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationNanos;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Warms up and measures the operation.
+     *
+     * @param name      the name the result is reported under
+     * @param operation the operation to measure
+     * @return the measured result
+     */
+    public Result run(String name, Operation operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+
+        double[] opsPerSecond = new double[measurementIterations];
+        long ops = 0;
+        long bytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long count = iteration(operation);
+            long elapsed = System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            ops += count;
+            opsPerSecond[i] = count * 1e9 / elapsed;
+        }
+        return new Result(name, opsPerSecond, (double) bytes / ops);
+    }
+
+    /**
+     * Runs the operation in batches until the iteration time is used up.
+     *
+     * @return the number of operations that were run
+     */
+    private long iteration(Operation operation) {
+        long deadline = System.nanoTime() + iterationNanos;
+        long count = 0;
+        int acc = 0;
+        do {
+            for (int i = 0; i < 1024; i++) {
+                acc += operation.run();
+            }
+            count += 1024;
+        } while (System.nanoTime() < deadline);
+        sink += acc;
+        return count;
+    }
+
+    /**
+     * The throughput and allocation figures of one benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final double meanOpsPerSecond;
+        private final double errorOpsPerSecond;
+        private final double bytesPerOp;
+
+        Result(String name, double[] opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.bytesPerOp = bytesPerOp;
+            double sum = 0;
+            for (double v : opsPerSecond) {
+                sum += v;
+            }
+            this.meanOpsPerSecond = sum / opsPerSecond.length;
+            double squares = 0;
+            for (double v : opsPerSecond) {
+                squares += (v - meanOpsPerSecond) * (v - meanOpsPerSecond);
+            }
+            this.errorOpsPerSecond = opsPerSecond.length < 2 ? 0 : Math.sqrt(squares / (opsPerSecond.length - 1));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMeanOpsPerSecond() {
+            return meanOpsPerSecond;
+        }
+
+        public double getErrorOpsPerSecond() {
+            return errorOpsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "%-45s %16.1f \u00b1 %12.1f ops/s %10.1f B/op",
+                    name, meanOpsPerSecond, errorOpsPerSecond, bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package pokemon.bench;
+
+import pokemon.Pokemon;
+import pokemon.event.NoOpEventSink;
+import pokemon.types.ElectricPokemon;
+import pokemon.types.FirePokemon;
+import pokemon.types.GrassPokemon;
+import pokemon.types.WaterPokemon;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Locale;
+
+/**
+ * Measures how much heap a large roster of Pokemon takes, per Pokemon.
+ * <p>
+ * The roster is built with the four types in turn and every Pokemon reporting to the same sink, the way a server
+ * holds the Pokemon of many sessions. The used heap is read after a full collection before and after building it,
+ * so only objects the roster keeps alive are counted. Strings that all Pokemon share count once.
+ * Pass the number of Pokemon to build, one million by default. Run with a fixed heap, for example
+ * {@code -Xms1g -Xmx1g}, so the collector does not resize the heap between the two readings.
+ */
+public class FootprintBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        // create one of each type first, so their classes and the moves are loaded before the first reading
+        build(4);
+        long before = usedAfterCollection(memory);
+        Pokemon[] roster = build(count);
+        long after = usedAfterCollection(memory);
+
+        System.out.println(String.format(Locale.ROOT, "%d Pokemon: %,d bytes, %.1f bytes per Pokemon",
+                roster.length, after - before, (double) (after - before) / roster.length));
+    }
+
+    private static Pokemon[] build(int count) {
+        Pokemon[] roster = new Pokemon[count];
+        for (int i = 0; i < count; i++) {
+            String name = "Pokemon" + i;
+            Pokemon pokemon = switch (i & 3) {
+                case 0 -> new FirePokemon(name, 50, 150, "Charcoal", "Roar");
+                case 1 -> new WaterPokemon(name, 50, 150, "Fish", "Splash");
+                case 2 -> new GrassPokemon(name, 50, 150, "Berries", "Rustle");
+                default -> new ElectricPokemon(name, 50, 150, "Candy", "Zap");
+            };
+            pokemon.setEvents(NoOpEventSink.INSTANCE);
+            roster[i] = pokemon;
+        }
+        return roster;
+    }
+
+    private static long usedAfterCollection(MemoryMXBean memory) {
+        long used = Long.MAX_VALUE;
+        // a single request may leave garbage behind, keep collecting until the figure stops dropping
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,75 @@
+package pokemon.bench;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.matchmaking.Matchmaker;
+import pokemon.metrics.Histogram;
+import pokemon.types.FirePokemon;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how many trainers per second the {@link Matchmaker} can queue and pair, and how long they wait.
+ * <p>
+ * Four threads queue trainers with a random level from 1 to 100 at the given total rate, fifty thousand per
+ * second by default, for the given number of seconds, ten by default. The battle handler only records how long each pair waited.
+ * The benchmark reports the trainers queued and paired per second and the percentiles of the wait in milliseconds.
+ */
+public class MatchmakingBenchmark {
+    private static final int PRODUCERS = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Histogram waits = new Histogram();
+        LongAdder queued = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        ExecutorService battles = Executors.newFixedThreadPool(2);
+
+        try (Matchmaker matchmaker = new Matchmaker(match -> waits.record(match.getWaitNanos()), battles,
+                Matchmaker.DEFAULT_TOLERANCE, Matchmaker.DEFAULT_WIDENING, Matchmaker.DEFAULT_MAX_WAIT_MILLIS,
+                Matchmaker.DEFAULT_MAX_BATTLES, Matchmaker.DEFAULT_CAPACITY)) {
+            long begin = System.nanoTime();
+            long end = begin + TimeUnit.SECONDS.toNanos(seconds);
+            long interval = TimeUnit.SECONDS.toNanos(1) * PRODUCERS / rate;
+            Thread[] threads = new Thread[PRODUCERS];
+            for (int t = 0; t < PRODUCERS; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; System.nanoTime() < end; i++) {
+                        long due = begin + i * interval;
+                        while (System.nanoTime() < due) {
+                            LockSupport.parkNanos(due - System.nanoTime());
+                        }
+                        Pokemon pokemon = new FirePokemon("Charrizard", 1 + random.nextInt(100), 150, "", "");
+                        if (matchmaker.enqueue(new PokemonTrainer("Trainer" + i, List.of(pokemon)))) {
+                            queued.increment();
+                        } else {
+                            rejected.increment();
+                            Thread.yield();
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            System.out.println(String.format(Locale.ROOT, "queued %,d (%,.0f/s), rejected %,d, paired %,d (%,.0f/s), "
+                            + "still waiting %,d",
+                    queued.sum(), (double) queued.sum() / seconds, rejected.sum(), 2 * matchmaker.getMatchCount(),
+                    2.0 * matchmaker.getMatchCount() / seconds, matchmaker.getWaitingCount()));
+        } finally {
+            battles.shutdown();
+        }
+        System.out.println(String.format(Locale.ROOT, "wait ms: mean %.2f p50 %.2f p99 %.2f max %.2f",
+                waits.mean() / 1e6, waits.percentile(0.5) / 1e6, waits.percentile(0.99) / 1e6, waits.max() / 1e6));
+    }
+}
@@ -0,0 +1,106 @@
+package pokemon.bench;
+
+import pokemon.Pokemon;
+import pokemon.PokemonGymImpl;
+import pokemon.event.NoOpEventSink;
+import pokemon.types.ElectricPokemon;
+import pokemon.types.FirePokemon;
+import pokemon.types.GrassPokemon;
+import pokemon.types.WaterPokemon;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the hot paths of a battle for each of the four Pokemon types:
+ * {@link Pokemon#calculateDamage}, {@link Pokemon#damageCalculator}, {@link Pokemon#gotHit}, {@link Pokemon#levelUp}
+ * and a full turn of {@link PokemonGymImpl#gymOwnerAttacks} followed by {@link PokemonGymImpl#performAttackPlayer}.
+ * <p>
+ * The Pokemon report to a sink that listens to nothing, and any other console output of the game is thrown away
+ * while the benchmarks run, so only the results are printed.
+ * Pass one or more type names (fire, water, grass, electric) to limit the run, and {@code -quick} for short iterations.
+ */
+public class PokemonBenchmarks {
+    private static final String[] TYPES = {"fire", "water", "grass", "electric"};
+
+    public static void main(String[] args) {
+        List<String> types = new ArrayList<>();
+        boolean quick = false;
+        for (String arg : args) {
+            if (arg.equals("-quick")) {
+                quick = true;
+            } else {
+                types.add(arg.toLowerCase(Locale.ROOT));
+            }
+        }
+        if (types.isEmpty()) {
+            types.addAll(List.of(TYPES));
+        }
+
+        Benchmark benchmark = quick ? new Benchmark(2, 3, 200_000_000L) : new Benchmark();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (String type : types) {
+                for (Benchmark.Result result : runType(benchmark, type)) {
+                    console.println(result);
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static List<Benchmark.Result> runType(Benchmark benchmark, String type) {
+        Pokemon attacker = create(type, "Attacker");
+        Pokemon defender = create("water", "Defender");
+        Pokemon opponent = create("fire", "Opponent");
+        PokemonGymImpl gym = new PokemonGymImpl(List.of(attacker, opponent));
+        String attack = attacker.getAttacks().get(0);
+        int attackerResource = attacker.getResourceLevel();
+        int opponentResource = opponent.getResourceLevel();
+
+        List<Benchmark.Result> results = new ArrayList<>();
+        results.add(benchmark.run(type + ".calculateDamage",
+                () -> attacker.calculateDamage(300, 500)));
+        results.add(benchmark.run(type + ".damageCalculator",
+                () -> attacker.damageCalculator(defender, 1.0)));
+        results.add(benchmark.run(type + ".gotHit", () -> {
+            defender.setHp(100);
+            defender.gotHit(15);
+            return defender.getHp();
+        }));
+        results.add(benchmark.run(type + ".levelUp", () -> {
+            attacker.setHp(50);
+            attacker.setLevel(10);
+            attacker.levelUp();
+            return attacker.getHp();
+        }));
+        results.add(benchmark.run(type + ".turn", () -> {
+            // every op plays the same turn, instead of one ever further into weak attacks
+            attacker.setHp(150);
+            attacker.setResourceLevel(attackerResource);
+            opponent.setHp(150);
+            opponent.setResourceLevel(opponentResource);
+            gym.gymOwnerAttacks(opponent, attacker);
+            gym.performAttackPlayer(attacker, opponent, attack);
+            return attacker.getHp() + opponent.getHp();
+        }));
+        return results;
+    }
+
+    private static Pokemon create(String type, String name) {
+        Pokemon pokemon = switch (type) {
+            case "fire" -> new FirePokemon(name, 50, 150, "Charcoal", "Roar");
+            case "water" -> new WaterPokemon(name, 50, 150, "Fish", "Splash");
+            case "grass" -> new GrassPokemon(name, 50, 150, "Berries", "Rustle");
+            case "electric" -> new ElectricPokemon(name, 50, 150, "Candy", "Zap");
+            default -> throw new IllegalArgumentException("Unknown type: " + type);
+        };
+        pokemon.setEvents(NoOpEventSink.INSTANCE);
+        return pokemon;
+    }
+}
@@ -0,0 +1,73 @@
+package pokemon.bench;
+
+import pokemon.roster.RosterLoader;
+import pokemon.roster.RosterStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Measures how fast {@link RosterLoader} reads a large roster file and how much it allocates per row.
+ * <p>
+ * A roster file with the given number of rows, ten million by default, is written to a temporary file first.
+ * It is then read five times just parsing the rows and five times into a {@link RosterStore}, and every read
+ * reports its rows per second and the bytes allocated per row. The file is deleted afterwards.
+ */
+public class RosterLoadBenchmark {
+    private static final String[][] SPECIES = {
+            {"Charrizard", "Fire", "firenougats", "GRRRRRRRRRRRRRRR"},
+            {"Blastoise", "Water", "Pokeflakes", "Blaaaaasssssstooooiiiiissss"},
+            {"Venusaur", "Grass", "Pokeleafs", "Veeeeeeeeennnnnuuuuuusaur"},
+            {"Ditto", "Grass", "Everything", "Dittto diiiito "},
+            {"Raichu", "Electric", "Pokebrocks", "Raaaaiiiiicccchhhhuuuuuuu!!!!"},
+            {"Gyarados", "Water", "Pokeflakes", "Gyaaaaaaaaarrrraaaadoooos"},
+    };
+
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Path file = Files.createTempFile("roster", ".csv");
+        try {
+            write(file, rows);
+            RosterLoader loader = new RosterLoader();
+            for (int i = 0; i < 5; i++) {
+                long allocated = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                long read = loader.load(file, (name, species, level, hp) -> sink += level + hp);
+                report("parse", read, System.nanoTime() - start, threads.getCurrentThreadAllocatedBytes() - allocated);
+            }
+            for (int i = 0; i < 5; i++) {
+                RosterStore store = new RosterStore(rows);
+                long allocated = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                long read = loader.loadInto(file, store);
+                report("store", read, System.nanoTime() - start, threads.getCurrentThreadAllocatedBytes() - allocated);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void write(Path file, int rows) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("name,type,level,hp,food,sound\n");
+            for (int i = 0; i < rows; i++) {
+                String[] species = SPECIES[i % SPECIES.length];
+                out.write(species[0] + "," + species[1] + "," + (1 + i % 100) + "," + (100 + i % 90) + ","
+                        + species[2] + "," + species[3] + "\n");
+            }
+        }
+    }
+
+    private static void report(String name, long rows, long nanos, long bytes) {
+        System.out.println(String.format(Locale.ROOT, "%-6s %,12d rows %,14.0f rows/s %8.2f B/row",
+                name, rows, rows * 1e9 / nanos, (double) bytes / rows));
+    }
+}
@@ -0,0 +1,168 @@
+package pokemon.event;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A sink that hands events to a background thread, which writes them to a {@link Writer} in batches.
+ * <p>
+ * Emitting only puts the message on a bounded queue, so battle threads never wait for I/O
+ * unless the writer falls so far behind that the queue is full. The background thread takes
+ * everything that is waiting, writes it in one go and flushes once per batch.
+ * Call {@link #close()} to write the remaining events and stop the thread. Closing waits for the emits that
+ * are already under way, so every event emitted before close is written and none lands behind the end marker.
+ */
+public class AsyncEventSink implements BattleEventSink, AutoCloseable {
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+    private static final int MAX_BATCH = 1024;
+    private static final String POISON = new String("<close>");
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final EventLevel threshold;
+    private final Writer writer;
+    private final BlockingQueue<String> queue;
+    private final Thread worker;
+    // the number of emits putting a message on the queue, with the CLOSED bit set once closing has begun
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile Exception failure;
+
+    public AsyncEventSink(EventLevel threshold, Writer writer) {
+        this(threshold, writer, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Constructs an AsyncEventSink and starts its background thread.
+     *
+     * @param threshold the lowest level that is written
+     * @param writer    where the events are written to, one per line
+     * @param queueSize the number of events that can wait before emitting blocks
+     */
+    public AsyncEventSink(EventLevel threshold, Writer writer, int queueSize) {
+        this.threshold = threshold;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.worker = new Thread(this::drain, "battle-events");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public boolean isEnabled(EventLevel level) {
+        return state.get() >= 0 && level.isAtLeast(threshold);
+    }
+
+    @Override
+    public void emit(EventLevel level, String message) {
+        int current;
+        do {
+            current = state.get();
+            if (current < 0) {
+                return;
+            }
+        } while (!state.compareAndSet(current, current + 1));
+        try {
+            // a worker that died can not make room any more, so stop waiting for it
+            while (!queue.offer(message, 100, TimeUnit.MILLISECONDS)) {
+                if (!worker.isAlive()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            state.decrementAndGet();
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        boolean interrupted = false;
+        while (true) {
+            String first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // only close stops the worker, otherwise emitters would block on a queue nobody takes from
+                interrupted = true;
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            boolean stop = false;
+            for (String message : batch) {
+                if (message == POISON) {
+                    stop = true;
+                    break;
+                }
+                text.append(message).append(System.lineSeparator());
+            }
+            write(text);
+            batch.clear();
+            text.setLength(0);
+            if (stop) {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+        }
+    }
+
+    private void write(CharSequence text) {
+        if (failure != null || text.length() == 0) {
+            return;
+        }
+        try {
+            writer.append(text);
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            // keep draining so emitters never block on a dead writer, report the error on close
+            failure = e;
+        }
+    }
+
+    /**
+     * Writes all events that are still waiting and stops the background thread.
+     * Events emitted after this are dropped.
+     *
+     * @throws UncheckedIOException if writing any of the events failed with an I/O error
+     * @throws RuntimeException     the first exception the writer threw otherwise
+     */
+    @Override
+    public void close() {
+        if (state.getAndUpdate(current -> current | CLOSED) < 0) {
+            return;
+        }
+        // the emits under way finish their put, the worker keeps taking from the queue meanwhile
+        while (state.get() != CLOSED && worker.isAlive()) {
+            Thread.onSpinWait();
+        }
+        try {
+            while (worker.isAlive() && !queue.offer(POISON, 100, TimeUnit.MILLISECONDS)) {
+                // the queue is full, the worker is making room
+            }
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Exception error = failure;
+        if (error instanceof IOException ioError) {
+            throw new UncheckedIOException(ioError);
+        }
+        if (error != null) {
+            throw (RuntimeException) error;
+        }
+    }
+}
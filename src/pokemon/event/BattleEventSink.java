@@ -0,0 +1,31 @@
+package pokemon.event;
+
+/**
+ * Receives the messages a battle produces, such as attacks, damage and fainting Pokemon.
+ * <p>
+ * Callers check {@link #isEnabled(EventLevel)} before building a message, so a sink that does not listen
+ * costs no string concatenation at all:
+ * <pre>
+ *     if (events.isEnabled(EventLevel.INFO)) {
+ *         events.emit(EventLevel.INFO, getName() + " took " + damage + " damage!");
+ *     }
+ * </pre>
+ */
+public interface BattleEventSink {
+
+    /**
+     * Tells whether this sink wants events of the given level.
+     *
+     * @param level the level of the event
+     * @return true if the event should be built and emitted
+     */
+    boolean isEnabled(EventLevel level);
+
+    /**
+     * Delivers an event. Only called for levels this sink is enabled for.
+     *
+     * @param level   the level of the event
+     * @param message the text of the event
+     */
+    void emit(EventLevel level, String message);
+}
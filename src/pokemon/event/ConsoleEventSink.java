@@ -0,0 +1,33 @@
+package pokemon.event;
+
+/**
+ * A sink that prints every event on its own line to {@link System#out}, as the game has always done.
+ */
+public class ConsoleEventSink implements BattleEventSink {
+    /**
+     * Prints every event, including the debug detail.
+     */
+    public static final ConsoleEventSink ALL = new ConsoleEventSink(EventLevel.DEBUG);
+
+    private final EventLevel threshold;
+
+    /**
+     * Constructs a ConsoleEventSink.
+     *
+     * @param threshold the lowest level that is printed
+     */
+    public ConsoleEventSink(EventLevel threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean isEnabled(EventLevel level) {
+        return level.isAtLeast(threshold);
+    }
+
+    @Override
+    public void emit(EventLevel level, String message) {
+        // looked up on every call, so redirecting System.out also redirects this sink
+        System.out.println(message);
+    }
+}
@@ -0,0 +1,29 @@
+package pokemon.event;
+
+/**
+ * How important a battle event is. A sink only receives the events at or above the level it listens to.
+ */
+public enum EventLevel {
+    /**
+     * Step by step detail, such as every 10 HP healed while levelling up.
+     */
+    DEBUG,
+    /**
+     * The normal play by play: attacks, damage taken and HP healed.
+     */
+    INFO,
+    /**
+     * Events that change the course of a battle, such as a Pokemon fainting or levelling up.
+     */
+    IMPORTANT;
+
+    /**
+     * Checks whether an event of this level passes a sink that listens from the given level.
+     *
+     * @param threshold the lowest level the sink listens to
+     * @return true if the event should be delivered
+     */
+    public boolean isAtLeast(EventLevel threshold) {
+        return ordinal() >= threshold.ordinal();
+    }
+}
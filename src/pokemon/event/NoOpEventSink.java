@@ -0,0 +1,20 @@
+package pokemon.event;
+
+/**
+ * A sink that listens to nothing, for headless battles.
+ */
+public final class NoOpEventSink implements BattleEventSink {
+    public static final NoOpEventSink INSTANCE = new NoOpEventSink();
+
+    private NoOpEventSink() {
+    }
+
+    @Override
+    public boolean isEnabled(EventLevel level) {
+        return false;
+    }
+
+    @Override
+    public void emit(EventLevel level, String message) {
+    }
+}
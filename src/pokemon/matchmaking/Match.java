@@ -0,0 +1,64 @@
+package pokemon.matchmaking;
+
+import pokemon.PokemonGymOwner;
+import pokemon.PokemonTrainer;
+
+import java.util.Locale;
+
+/**
+ * Two entrants the {@link Matchmaker} paired: a trainer and another waiting trainer, or a trainer and a gym owner.
+ */
+public class Match {
+    private final PokemonTrainer challenger;
+    private final PokemonTrainer opponent;
+    private final double challengerLevel;
+    private final double opponentLevel;
+    private final long waitNanos;
+
+    /**
+     * Constructs a Match.
+     *
+     * @param challenger      the trainer that waited longest
+     * @param opponent        the other trainer, or the gym owner
+     * @param challengerLevel the average level of the challenger's roster
+     * @param opponentLevel   the average level of the opponent's roster
+     * @param waitNanos       how long the challenger waited in the queue, in nanoseconds
+     */
+    public Match(PokemonTrainer challenger, PokemonTrainer opponent, double challengerLevel, double opponentLevel,
+                 long waitNanos) {
+        this.challenger = challenger;
+        this.opponent = opponent;
+        this.challengerLevel = challengerLevel;
+        this.opponentLevel = opponentLevel;
+        this.waitNanos = waitNanos;
+    }
+
+    public PokemonTrainer getChallenger() {
+        return challenger;
+    }
+
+    public PokemonTrainer getOpponent() {
+        return opponent;
+    }
+
+    public double getChallengerLevel() {
+        return challengerLevel;
+    }
+
+    public double getOpponentLevel() {
+        return opponentLevel;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    public boolean isGymBattle() {
+        return opponent instanceof PokemonGymOwner;
+    }
+
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (%.1f) vs %s (%.1f) after %d ms", challenger.getName(), challengerLevel,
+                opponent.getName(), opponentLevel, waitNanos / 1_000_000);
+    }
+}
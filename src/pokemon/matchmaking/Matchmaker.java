@@ -0,0 +1,463 @@
+package pokemon.matchmaking;
+
+import pokemon.Pokemon;
+import pokemon.PokemonGymOwner;
+import pokemon.PokemonTrainer;
+import pokemon.battle.BattleExecutors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Pairs waiting trainers with each other, or with a gym owner, by the average level of their rosters.
+ * <p>
+ * Two entrants are paired when their levels are at most a tolerance apart. The tolerance of a trainer starts small
+ * and widens the longer it waits, and once a trainer has waited the maximum wait it takes the nearest entrant there
+ * is. Every pair is handed to a battle handler on an executor.
+ * <p>
+ * {@link #enqueue(PokemonTrainer)} only adds the trainer to a lock-free inbox, so any number of threads can queue
+ * trainers at once. A background thread drains the inbox every {@value #TICK_MILLIS} ms, merges the new trainers
+ * into a list kept sorted by level and pairs neighbours in one pass over it, so a tick takes time linear in the
+ * number of waiting trainers instead of comparing every trainer with every other. Gym challengers are paired
+ * with the nearest gym owner by a binary search over the owners sorted by level.
+ * <p>
+ * At most a configured number of battles run at the same time. When all are taken, trainers stay in the queue
+ * until a battle ends, so the executor never holds more than that many pairs.
+ */
+public class Matchmaker implements AutoCloseable {
+    public static final double DEFAULT_TOLERANCE = 2;
+    public static final double DEFAULT_WIDENING = 5;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+    public static final int DEFAULT_MAX_BATTLES = 1024;
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    public static final long TICK_MILLIS = 10;
+
+    private static final Comparator<Ticket> BY_LEVEL =
+            Comparator.comparingDouble((Ticket t) -> t.level).thenComparingLong(t -> t.enqueued);
+
+    private final Consumer<Match> battles;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final double tolerance;
+    private final double wideningPerNano;
+    private final long maxWaitNanos;
+    private final int capacity;
+    private final Semaphore battleSlots;
+    private final ConcurrentLinkedQueue<Ticket> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong matches = new AtomicLong();
+    private final List<PokemonGymOwner> owners = new CopyOnWriteArrayList<>();
+    private volatile boolean ownersChanged;
+    private volatile boolean closed;
+    private final Thread ticker;
+
+    // only used by the ticker thread, both lists sorted by level
+    private final List<Ticket> trainers = new ArrayList<>();
+    private final List<Ticket> challengers = new ArrayList<>();
+    private PokemonGymOwner[] sortedOwners = new PokemonGymOwner[0];
+    private double[] ownerLevels = new double[0];
+    private double trainersResumeLevel = Double.NEGATIVE_INFINITY;
+    private double challengersResumeLevel = Double.NEGATIVE_INFINITY;
+
+    /**
+     * A trainer waiting in the queue.
+     */
+    private static final class Ticket {
+        private final PokemonTrainer trainer;
+        private final double level;
+        private final long enqueued;
+        private final boolean gym;
+        // only used by the ticker thread
+        private boolean paired;
+
+        private Ticket(PokemonTrainer trainer, double level, long enqueued, boolean gym) {
+            this.trainer = trainer;
+            this.level = level;
+            this.enqueued = enqueued;
+            this.gym = gym;
+        }
+    }
+
+    /**
+     * Constructs a Matchmaker with the default tolerances that runs every battle on its own thread.
+     *
+     * @param battles the handler that plays a pair, called on the battle thread
+     */
+    public Matchmaker(Consumer<Match> battles) {
+        this(battles, BattleExecutors.newPerTaskExecutor("battle"), true, DEFAULT_TOLERANCE, DEFAULT_WIDENING,
+                DEFAULT_MAX_WAIT_MILLIS, DEFAULT_MAX_BATTLES, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a Matchmaker that runs its battles on the given executor, which is not shut down by {@link #close()}.
+     *
+     * @param battles       the handler that plays a pair, called on the executor
+     * @param executor      the executor that runs the battles
+     * @param tolerance     how many levels apart two entrants may be when one has just been queued
+     * @param widening      how many levels the tolerance of a trainer widens per second of waiting
+     * @param maxWaitMillis after how long a trainer is paired with the nearest entrant, however far away
+     * @param maxBattles    the maximum number of battles that run at the same time
+     * @param capacity      the maximum number of trainers that can wait at the same time
+     */
+    public Matchmaker(Consumer<Match> battles, Executor executor, double tolerance, double widening,
+                      long maxWaitMillis, int maxBattles, int capacity) {
+        this(battles, executor, false, tolerance, widening, maxWaitMillis, maxBattles, capacity);
+    }
+
+    private Matchmaker(Consumer<Match> battles, Executor executor, boolean ownsExecutor, double tolerance,
+                       double widening, long maxWaitMillis, int maxBattles, int capacity) {
+        if (tolerance < 0 || widening < 0) {
+            throw new IllegalArgumentException("tolerance and widening must not be negative: " + tolerance + ", "
+                    + widening);
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must not be negative: " + maxWaitMillis);
+        }
+        if (maxBattles <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("maxBattles and capacity must be positive: " + maxBattles + ", "
+                    + capacity);
+        }
+        this.battles = battles;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.tolerance = tolerance;
+        this.wideningPerNano = widening / TimeUnit.SECONDS.toNanos(1);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.capacity = capacity;
+        this.battleSlots = new Semaphore(maxBattles);
+        this.ticker = new Thread(this::run, "matchmaker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Returns the average level of the Pokemon of a trainer, the level the matchmaker pairs by.
+     *
+     * @param trainer the trainer
+     * @return the average level of its roster
+     * @throws IllegalArgumentException if the trainer has no Pokemon
+     */
+    public static double levelOf(PokemonTrainer trainer) {
+        List<Pokemon> pokemons = trainer.getPokemons();
+        if (pokemons.isEmpty()) {
+            throw new IllegalArgumentException(trainer.getName() + " has no Pokemon");
+        }
+        long sum = 0;
+        for (Pokemon p : pokemons) {
+            sum += p.getLevel();
+        }
+        return (double) sum / pokemons.size();
+    }
+
+    /**
+     * Queues a trainer to battle another trainer. A trainer queued twice can be paired with itself.
+     *
+     * @param trainer the trainer
+     * @return true if the trainer was queued, false if the queue is full or closed
+     */
+    public boolean enqueue(PokemonTrainer trainer) {
+        return offer(trainer, false);
+    }
+
+    /**
+     * Queues a trainer to battle one of the gym owners.
+     *
+     * @param trainer the trainer
+     * @return true if the trainer was queued, false if the queue is full or closed
+     */
+    public boolean challengeGym(PokemonTrainer trainer) {
+        return offer(trainer, true);
+    }
+
+    private boolean offer(PokemonTrainer trainer, boolean gym) {
+        double level = levelOf(trainer);
+        if (closed) {
+            return false;
+        }
+        if (waiting.incrementAndGet() > capacity) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        inbox.add(new Ticket(trainer, level, System.nanoTime(), gym));
+        return true;
+    }
+
+    /**
+     * Adds a gym owner that trainers queued with {@link #challengeGym(PokemonTrainer)} can be paired with.
+     * A gym owner can be in several battles at the same time.
+     *
+     * @param owner the gym owner
+     */
+    public void addGymOwner(PokemonGymOwner owner) {
+        levelOf(owner);
+        owners.add(owner);
+        ownersChanged = true;
+    }
+
+    /**
+     * Removes a gym owner. Pairs that were already made are still played.
+     *
+     * @param owner the gym owner
+     * @return true if the owner was taking challengers
+     */
+    public boolean removeGymOwner(PokemonGymOwner owner) {
+        boolean removed = owners.remove(owner);
+        ownersChanged = true;
+        return removed;
+    }
+
+    private void run() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        long next = System.nanoTime();
+        while (!closed) {
+            tick(System.nanoTime());
+            next += tickNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            } else {
+                // a slow tick does not make the following ones catch up
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    private void tick(long now) {
+        if (ownersChanged) {
+            ownersChanged = false;
+            sortOwners();
+        }
+        int trainersBefore = trainers.size();
+        int challengersBefore = challengers.size();
+        for (Ticket ticket; (ticket = inbox.poll()) != null; ) {
+            (ticket.gym ? challengers : trainers).add(ticket);
+        }
+        // the waiting part is already sorted, which the merge sort of List.sort finds and keeps
+        if (trainers.size() > trainersBefore) {
+            trainers.sort(BY_LEVEL);
+        }
+        if (challengers.size() > challengersBefore) {
+            challengers.sort(BY_LEVEL);
+        }
+        pairTrainers(now);
+        pairChallengers(now);
+    }
+
+    /**
+     * Pairs neighbours in the sorted list of trainers. When the battle slots run out the pass stops, and the next
+     * one starts where it stopped, so the trainers of every level get their turn. A pass that starts in the middle
+     * wraps around to the start of the list and ends with the neighbour it started at, so the trainers on either
+     * side of that point are compared as well.
+     */
+    private void pairTrainers(long now) {
+        int start = firstAtLeast(trainers, trainersResumeLevel);
+        trainersResumeLevel = Double.NEGATIVE_INFINITY;
+        if (!pairTrainers(start, trainers.size(), now)) {
+            pairTrainers(0, Math.min(start + 1, trainers.size()), now);
+        }
+        trainers.removeIf(t -> t.paired);
+    }
+
+    /**
+     * Pairs unpaired neighbours among the trainers from index from up to index to.
+     *
+     * @return true if the battle slots ran out
+     */
+    private boolean pairTrainers(int from, int to, long now) {
+        int i = from;
+        while (i + 1 < to) {
+            Ticket first = trainers.get(i);
+            Ticket second = trainers.get(i + 1);
+            if (first.paired || second.paired) {
+                i += second.paired ? 2 : 1;
+                continue;
+            }
+            double reach = Math.max(toleranceOf(first, now), toleranceOf(second, now));
+            if (second.level - first.level > reach) {
+                i++;
+                continue;
+            }
+            if (!battleSlots.tryAcquire()) {
+                trainersResumeLevel = first.level;
+                return true;
+            }
+            Ticket older = first.enqueued <= second.enqueued ? first : second;
+            Ticket younger = older == first ? second : first;
+            first.paired = true;
+            second.paired = true;
+            dispatch(new Match(older.trainer, younger.trainer, older.level, younger.level, now - older.enqueued), 2);
+            i += 2;
+        }
+        return false;
+    }
+
+    /**
+     * Pairs every gym challenger with the gym owner nearest to its level, starting where the last pass stopped
+     * when the battle slots ran out.
+     */
+    private void pairChallengers(long now) {
+        if (ownerLevels.length == 0) {
+            return;
+        }
+        int start = firstAtLeast(challengers, challengersResumeLevel);
+        challengersResumeLevel = Double.NEGATIVE_INFINITY;
+        if (!pairChallengers(start, challengers.size(), now)) {
+            pairChallengers(0, start, now);
+        }
+        challengers.removeIf(t -> t.paired);
+    }
+
+    /**
+     * Pairs the gym challengers from index from up to index to.
+     *
+     * @return true if the battle slots ran out
+     */
+    private boolean pairChallengers(int from, int to, long now) {
+        for (int i = from; i < to; i++) {
+            Ticket challenger = challengers.get(i);
+            int owner = nearestOwner(challenger.level);
+            if (Math.abs(ownerLevels[owner] - challenger.level) > toleranceOf(challenger, now)) {
+                continue;
+            }
+            if (!battleSlots.tryAcquire()) {
+                challengersResumeLevel = challenger.level;
+                return true;
+            }
+            challenger.paired = true;
+            dispatch(new Match(challenger.trainer, sortedOwners[owner], challenger.level, ownerLevels[owner],
+                    now - challenger.enqueued), 1);
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first ticket in a list sorted by level with at least the given level.
+     */
+    private static int firstAtLeast(List<Ticket> tickets, double level) {
+        int low = 0;
+        int high = tickets.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tickets.get(middle).level < level) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private double toleranceOf(Ticket ticket, long now) {
+        long waited = now - ticket.enqueued;
+        if (waited >= maxWaitNanos) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return tolerance + waited * wideningPerNano;
+    }
+
+    private int nearestOwner(double level) {
+        int index = Arrays.binarySearch(ownerLevels, level);
+        if (index >= 0) {
+            return index;
+        }
+        int above = -index - 1;
+        if (above == 0) {
+            return 0;
+        }
+        if (above == ownerLevels.length) {
+            return above - 1;
+        }
+        return ownerLevels[above] - level < level - ownerLevels[above - 1] ? above : above - 1;
+    }
+
+    private void sortOwners() {
+        PokemonGymOwner[] sorted = owners.toArray(new PokemonGymOwner[0]);
+        double[] levels = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            levels[i] = levelOf(sorted[i]);
+        }
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> levels[i]));
+        sortedOwners = new PokemonGymOwner[sorted.length];
+        ownerLevels = new double[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedOwners[i] = sorted[order[i]];
+            ownerLevels[i] = levels[order[i]];
+        }
+    }
+
+    /**
+     * Hands a pair to the executor. The battle slot has been taken already and is given back when the battle ends.
+     */
+    private void dispatch(Match match, int trainersPaired) {
+        waiting.addAndGet(-trainersPaired);
+        matches.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    battles.accept(match);
+                } finally {
+                    battleSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the executor has been shut down, nothing can play this pair any more
+            battleSlots.release();
+        }
+    }
+
+    /**
+     * Returns the number of trainers waiting to be paired, including the ones queued since the last tick.
+     *
+     * @return the number of waiting trainers
+     */
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the number of pairs handed to the executor so far.
+     *
+     * @return the number of matches made
+     */
+    public long getMatchCount() {
+        return matches.get();
+    }
+
+    /**
+     * Stops pairing and shuts down the executor if this matchmaker created it. Trainers still waiting are dropped,
+     * battles already handed out are played.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(ticker);
+        try {
+            ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
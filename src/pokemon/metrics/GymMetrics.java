@@ -0,0 +1,232 @@
+package pokemon.metrics;
+
+import pokemon.PokemonType;
+import pokemon.types.MoveRegistry;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what happens in the gyms of this process: battles, turns, the damage of every move, how long it takes
+ * to resolve an attack and how often each matchup of types ends in a faint.
+ * <p>
+ * All counters are {@link LongAdder}s and all distributions are {@link Histogram}s, so the many sessions of a
+ * {@link pokemon.server.GymServer} can record at the same time without waiting for each other.
+ * The {@link #shared()} instance is published as the MBean {@value #OBJECT_NAME} on the platform MBean server.
+ */
+public class GymMetrics implements GymMetricsMBean {
+    public static final String OBJECT_NAME = "pokemon:type=GymMetrics";
+
+    /**
+     * Metrics that record nothing, for gyms that should not count, such as replays of recorded sessions.
+     */
+    public static final GymMetrics DISABLED = new GymMetrics(false);
+
+    private static final int TYPES = PokemonType.values().length;
+
+    private final boolean enabled;
+    private final LongAdder battlesStarted = new LongAdder();
+    private final LongAdder battlesFinished = new LongAdder();
+    private final LongAdder battlesAbandoned = new LongAdder();
+    private final Histogram turnsPerBattle = new Histogram();
+    private final Histogram turnLatency = new Histogram();
+    private final Histogram[] moveDamage;
+    private final LongAdder[] attacksByMatchup = new LongAdder[TYPES * TYPES];
+    private final LongAdder[] faintsByMatchup = new LongAdder[TYPES * TYPES];
+
+    public GymMetrics() {
+        this(true);
+    }
+
+    private GymMetrics(boolean enabled) {
+        this.enabled = enabled;
+        moveDamage = new Histogram[enabled ? MoveRegistry.moveCount() : 0];
+        for (int i = 0; i < moveDamage.length; i++) {
+            moveDamage[i] = new Histogram();
+        }
+        for (int i = 0; i < attacksByMatchup.length; i++) {
+            attacksByMatchup[i] = new LongAdder();
+            faintsByMatchup[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the metrics all gyms of this process record to by default, registering them as an MBean the first
+     * time. When the MBean can not be registered, the metrics are still recorded but not published.
+     *
+     * @return the shared metrics
+     */
+    public static GymMetrics shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        private static final GymMetrics INSTANCE = register(new GymMetrics());
+
+        private static GymMetrics register(GymMetrics metrics) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                // another copy of these classes has published its metrics under the name already
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Records the start of a battle.
+     */
+    public void battleStarted() {
+        if (enabled) {
+            battlesStarted.increment();
+        }
+    }
+
+    /**
+     * Records the end of a battle in which a Pokemon fainted.
+     *
+     * @param turns the number of attacks in the battle
+     */
+    public void battleFinished(int turns) {
+        if (enabled) {
+            battlesFinished.increment();
+            turnsPerBattle.record(turns);
+        }
+    }
+
+    /**
+     * Records a battle that ended because the player left.
+     */
+    public void battleAbandoned() {
+        if (enabled) {
+            battlesAbandoned.increment();
+        }
+    }
+
+    /**
+     * Records one resolved attack.
+     *
+     * @param move         the move id of the attack
+     * @param attackerType the type ordinal of the attacking Pokemon
+     * @param defenderType the type ordinal of the Pokemon that was attacked
+     * @param damage       the HP the defender lost
+     * @param fainted      whether the attack made the defender faint
+     * @param nanos        how long it took to resolve the attack
+     */
+    public void turnResolved(int move, int attackerType, int defenderType, int damage, boolean fainted, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        turnLatency.record(nanos);
+        moveDamage[move].record(damage);
+        int matchup = attackerType * TYPES + defenderType;
+        attacksByMatchup[matchup].increment();
+        if (fainted) {
+            faintsByMatchup[matchup].increment();
+        }
+    }
+
+    @Override
+    public long getBattlesStarted() {
+        return battlesStarted.sum();
+    }
+
+    @Override
+    public long getBattlesFinished() {
+        return battlesFinished.sum();
+    }
+
+    @Override
+    public long getBattlesAbandoned() {
+        return battlesAbandoned.sum();
+    }
+
+    @Override
+    public long getTurns() {
+        return turnLatency.count();
+    }
+
+    @Override
+    public double getMeanTurnsPerBattle() {
+        return turnsPerBattle.mean();
+    }
+
+    @Override
+    public long getTurnsPerBattleP50() {
+        return turnsPerBattle.percentile(0.5);
+    }
+
+    @Override
+    public long getTurnsPerBattleP99() {
+        return turnsPerBattle.percentile(0.99);
+    }
+
+    @Override
+    public long getTurnLatencyP50Nanos() {
+        return turnLatency.percentile(0.5);
+    }
+
+    @Override
+    public long getTurnLatencyP99Nanos() {
+        return turnLatency.percentile(0.99);
+    }
+
+    @Override
+    public long getTurnLatencyP999Nanos() {
+        return turnLatency.percentile(0.999);
+    }
+
+    @Override
+    public long getTurnLatencyMaxNanos() {
+        return turnLatency.max();
+    }
+
+    @Override
+    public String[] getMoveDamage() {
+        List<String> lines = new ArrayList<>();
+        for (int move = 0; move < moveDamage.length; move++) {
+            if (moveDamage[move].count() > 0) {
+                lines.add(MoveRegistry.nameOf(move) + ": " + moveDamage[move]);
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getFaintRates() {
+        List<String> lines = new ArrayList<>();
+        for (int attacker = 0; attacker < TYPES; attacker++) {
+            for (int defender = 0; defender < TYPES; defender++) {
+                long attacks = attacksByMatchup[attacker * TYPES + defender].sum();
+                if (attacks == 0) {
+                    continue;
+                }
+                long faints = faintsByMatchup[attacker * TYPES + defender].sum();
+                lines.add(PokemonType.fromOrdinal(attacker).getDisplayName() + " vs "
+                        + PokemonType.fromOrdinal(defender).getDisplayName() + ": " + faints + " faints in " + attacks
+                        + " attacks (" + String.format("%.2f%%", 100.0 * faints / attacks) + ")");
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public void reset() {
+        battlesStarted.reset();
+        battlesFinished.reset();
+        battlesAbandoned.reset();
+        turnsPerBattle.reset();
+        turnLatency.reset();
+        for (Histogram histogram : moveDamage) {
+            histogram.reset();
+        }
+        for (int i = 0; i < attacksByMatchup.length; i++) {
+            attacksByMatchup[i].reset();
+            faintsByMatchup[i].reset();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package pokemon.metrics;
+
+/**
+ * The management interface of {@link GymMetrics}, as shown in a JMX console.
+ * A battle is one fight between two Pokemon in a gym, a turn is one attack.
+ */
+public interface GymMetricsMBean {
+
+    long getBattlesStarted();
+
+    long getBattlesFinished();
+
+    /**
+     * Returns the number of battles that ended because the player left in the middle of them.
+     *
+     * @return the number of abandoned battles
+     */
+    long getBattlesAbandoned();
+
+    long getTurns();
+
+    double getMeanTurnsPerBattle();
+
+    long getTurnsPerBattleP50();
+
+    long getTurnsPerBattleP99();
+
+    long getTurnLatencyP50Nanos();
+
+    long getTurnLatencyP99Nanos();
+
+    long getTurnLatencyP999Nanos();
+
+    long getTurnLatencyMaxNanos();
+
+    /**
+     * Returns the damage distribution of every move that was used, one line per move.
+     *
+     * @return lines of the form {@code Inferno: n=12 mean=31.0 p50=30 p99=52 max=52}
+     */
+    String[] getMoveDamage();
+
+    /**
+     * Returns how often an attack made its target faint, one line per matchup of attacker and defender type.
+     *
+     * @return lines of the form {@code Fire vs Water: 3 faints in 120 attacks (2.50%)}
+     */
+    String[] getFaintRates();
+
+    /**
+     * Sets all counters and histograms back to zero.
+     */
+    void reset();
+}
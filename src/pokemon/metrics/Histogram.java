@@ -0,0 +1,151 @@
+package pokemon.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts recorded values in buckets of roughly equal relative width, so percentiles can be read without keeping
+ * every value.
+ * <p>
+ * Values below 16 get a bucket each. Larger values share a bucket with the values that have the same highest bit
+ * and the same three bits after it, so a percentile is off by at most an eighth of its value. Values from
+ * 2<sup>40</sup> up, such as more than 18 minutes in nanoseconds, all land in the last bucket.
+ * Every bucket is a {@link LongAdder}, so threads that record at the same time do not wait for each other.
+ */
+public class Histogram {
+    private static final int EXACT = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BIT = 40;
+    private static final int BUCKETS = EXACT + (MAX_BIT - 4) * SUB_BUCKETS + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        buckets[bucketOf(v)].increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int bit = 63 - Long.numberOfLeadingZeros(value);
+        if (bit >= MAX_BIT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (bit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT + (bit - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the highest value that falls into a bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int bit = (bucket - EXACT) / SUB_BUCKETS + 4;
+        int sub = (bucket - EXACT) % SUB_BUCKETS;
+        long lower = (1L << bit) + ((long) sub << (bit - SUB_BUCKET_BITS));
+        return lower + (1L << (bit - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long max() {
+        long value = max.get();
+        return value == Long.MIN_VALUE ? 0 : value;
+    }
+
+    /**
+     * Returns a value that the given fraction of the recorded values does not exceed,
+     * the upper end of the bucket the percentile falls in, but never more than the largest value recorded.
+     *
+     * @param fraction the fraction, such as 0.99 for the 99th percentile
+     * @return the percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction must be between 0 and 1: " + fraction);
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Forgets all recorded values. Values recorded while the reset runs may or may not be kept.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    public String toString() {
+        return "n=" + count() + " mean=" + String.format("%.1f", mean()) + " p50=" + percentile(0.5)
+                + " p99=" + percentile(0.99) + " max=" + max();
+    }
+}
@@ -0,0 +1,293 @@
+package pokemon.rating;
+
+import pokemon.PokemonTrainer;
+import pokemon.battle.BattleResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps an Elo rating for every trainer and gym owner that has played a battle, and ranks them.
+ * <p>
+ * A trainer starts at {@value #DEFAULT_RATING}. After each battle the winner takes points from the loser: up to
+ * K points when the loser was rated far higher, hardly any when the loser was rated far lower. A draw moves the
+ * lower rated trainer up. Ratings are kept to a tenth of a point.
+ * <p>
+ * Trainers are known by name, so two trainers with the same name share one rating. A battle between two trainers
+ * with the same name, like a player who calls itself after the gym owner, can not be told apart from a trainer
+ * battling itself and is left out of the ratings.
+ * <p>
+ * Battles are recorded from many threads at once. The two trainers of a battle are locked in a fixed order while
+ * their ratings change, so battles of other trainers are never held up. Every trainer sits in a concurrent skip
+ * list ordered by rating, which lists the top trainers in the time it takes to walk them, and is counted in a
+ * Fenwick tree of atomic counters indexed by rating, which gives the rank of any trainer in a logarithmic number of
+ * steps. While a battle is being recorded its two trainers may be missing from a top list for a moment.
+ */
+public class Leaderboard {
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_K = 32;
+    public static final double MAX_RATING = 5000;
+
+    private static final int SCALE = 10;
+    private static final int MAX_POINTS = (int) (MAX_RATING * SCALE);
+
+    private final double k;
+    private final int initialPoints;
+    private final ConcurrentMap<String, Player> players = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Position> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(Position::points).reversed().thenComparingLong(Position::id));
+    // counts of trainers per rating in tenths of a point, index 1 holds rating 0
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(MAX_POINTS + 2);
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * A trainer on the board. The position and the results are only changed while the player is locked.
+     */
+    private static final class Player {
+        private final String name;
+        private final long id;
+        private volatile Position position;
+        private int wins;
+        private int losses;
+        private int draws;
+
+        private Player(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
+    /**
+     * The place of a trainer in the ranking. A new one replaces it whenever the rating changes.
+     */
+    private record Position(int points, long id, Player player) {
+    }
+
+    public Leaderboard() {
+        this(DEFAULT_K, DEFAULT_RATING);
+    }
+
+    /**
+     * Constructs a Leaderboard.
+     *
+     * @param k             the most points a single battle can move a rating
+     * @param initialRating the rating of a trainer that has not played yet
+     */
+    public Leaderboard(double k, double initialRating) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        if (initialRating < 0 || initialRating > MAX_RATING) {
+            throw new IllegalArgumentException("initialRating must be between 0 and " + MAX_RATING + ": " + initialRating);
+        }
+        this.k = k;
+        this.initialPoints = (int) Math.round(initialRating * SCALE);
+    }
+
+    /**
+     * Records a battle that one trainer won.
+     *
+     * @param winner the trainer that won
+     * @param loser  the trainer that lost
+     * @return true if the battle was recorded, false if both trainers have the same name
+     */
+    public boolean recordWin(PokemonTrainer winner, PokemonTrainer loser) {
+        return recordByName(winner.getName(), loser.getName(), false);
+    }
+
+    /**
+     * Records a battle that ended in a draw.
+     *
+     * @param first  one of the trainers
+     * @param second the other trainer
+     * @return true if the battle was recorded, false if both trainers have the same name
+     */
+    public boolean recordDraw(PokemonTrainer first, PokemonTrainer second) {
+        return recordByName(first.getName(), second.getName(), true);
+    }
+
+    /**
+     * Records a battle played by the {@link pokemon.battle.BattleEngine}.
+     * A draw has no winner or loser, so the trainers must be passed in.
+     *
+     * @param result     the result of the battle
+     * @param challenger the challenger of the battle
+     * @param owner      the gym owner of the battle
+     * @return true if the battle was recorded, false if both trainers have the same name
+     */
+    public boolean record(BattleResult result, PokemonTrainer challenger, PokemonTrainer owner) {
+        if (result.isDraw()) {
+            return recordDraw(challenger, owner);
+        }
+        return recordWin(result.getWinner(), result.getLoser());
+    }
+
+    private boolean recordByName(String first, String second, boolean draw) {
+        if (first.equals(second)) {
+            return false;
+        }
+        record(first, second, draw);
+        return true;
+    }
+
+    /**
+     * Records a battle between two trainers by name.
+     *
+     * @param first  the trainer that won, or one of the trainers of a draw
+     * @param second the trainer that lost, or the other trainer of a draw
+     * @param draw   true if the battle was a draw
+     * @throws IllegalArgumentException if both names are the same
+     */
+    public void record(String first, String second, boolean draw) {
+        Player a = player(first);
+        Player b = player(second);
+        if (a == b) {
+            throw new IllegalArgumentException("A trainer can not battle itself: " + first);
+        }
+        // always lock the older player first, so two battles of the same pair can not deadlock
+        Player lockFirst = a.id < b.id ? a : b;
+        Player lockSecond = lockFirst == a ? b : a;
+        synchronized (lockFirst) {
+            synchronized (lockSecond) {
+                double ratingA = (double) a.position.points / SCALE;
+                double ratingB = (double) b.position.points / SCALE;
+                double expectedA = 1 / (1 + Math.pow(10, (ratingB - ratingA) / 400));
+                double score = draw ? 0.5 : 1;
+                int delta = (int) Math.round(k * (score - expectedA) * SCALE);
+                move(a, a.position.points + delta);
+                move(b, b.position.points - delta);
+                if (draw) {
+                    a.draws++;
+                    b.draws++;
+                } else {
+                    a.wins++;
+                    b.losses++;
+                }
+            }
+        }
+    }
+
+    private Player player(String name) {
+        Player player = players.get(name);
+        if (player != null) {
+            return player;
+        }
+        return players.computeIfAbsent(name, n -> {
+            Player created = new Player(n, ids.getAndIncrement());
+            Position position = new Position(initialPoints, created.id, created);
+            created.position = position;
+            ranking.add(position);
+            add(initialPoints, 1);
+            return created;
+        });
+    }
+
+    /**
+     * Moves a locked player to a new rating.
+     */
+    private void move(Player player, int points) {
+        points = Math.max(0, Math.min(MAX_POINTS, points));
+        Position old = player.position;
+        if (old.points == points) {
+            return;
+        }
+        Position moved = new Position(points, player.id, player);
+        ranking.remove(old);
+        ranking.add(moved);
+        add(old.points, -1);
+        add(points, 1);
+        player.position = moved;
+    }
+
+    private void add(int points, int delta) {
+        for (int i = points + 1; i < counts.length(); i += i & -i) {
+            counts.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * Counts the trainers with a rating of at most the given number of tenths of a point.
+     */
+    private int countUpTo(int points) {
+        int count = 0;
+        for (int i = points + 1; i > 0; i -= i & -i) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rank of a trainer: one more than the number of trainers with a higher rating.
+     *
+     * @param trainerName the name of the trainer
+     * @return the rank, starting at 1, or 0 if the trainer has not played
+     */
+    public int rankOf(String trainerName) {
+        Player player = players.get(trainerName);
+        if (player == null) {
+            return 0;
+        }
+        return rankOf(player.position.points);
+    }
+
+    private int rankOf(int points) {
+        return 1 + countUpTo(MAX_POINTS) - countUpTo(points);
+    }
+
+    /**
+     * Returns the rating of a trainer.
+     *
+     * @param trainerName the name of the trainer
+     * @return the rating, or null if the trainer has not played
+     */
+    public Rating getRating(String trainerName) {
+        Player player = players.get(trainerName);
+        if (player == null) {
+            return null;
+        }
+        synchronized (player) {
+            int points = player.position.points;
+            return rating(player, points, rankOf(points));
+        }
+    }
+
+    /**
+     * Returns the best rated trainers, best first.
+     *
+     * @param n the number of trainers to return at most
+     * @return the ratings of the top trainers
+     */
+    public List<Rating> top(int n) {
+        List<Rating> top = new ArrayList<>(Math.min(n, players.size()));
+        int rank = 0;
+        int previousPoints = -1;
+        for (Position position : ranking) {
+            if (top.size() == n) {
+                break;
+            }
+            if (position.points != previousPoints) {
+                rank = top.size() + 1;
+                previousPoints = position.points;
+            }
+            Player player = position.player;
+            synchronized (player) {
+                top.add(rating(player, position.points, rank));
+            }
+        }
+        return top;
+    }
+
+    private static Rating rating(Player player, int points, int rank) {
+        return new Rating(player.name, (double) points / SCALE, rank, player.wins, player.losses, player.draws);
+    }
+
+    public int size() {
+        return players.size();
+    }
+}
@@ -0,0 +1,66 @@
+package pokemon.rating;
+
+import java.util.Locale;
+
+/**
+ * The Elo rating of one trainer on a {@link Leaderboard} at the moment it was read.
+ */
+public class Rating {
+    private final String trainerName;
+    private final double rating;
+    private final int rank;
+    private final int wins;
+    private final int losses;
+    private final int draws;
+
+    /**
+     * Constructs a Rating.
+     *
+     * @param trainerName the name of the trainer
+     * @param rating      the Elo rating
+     * @param rank        the place on the leaderboard, shared by trainers with the same rating, starting at 1
+     * @param wins        the number of battles won
+     * @param losses      the number of battles lost
+     * @param draws       the number of battles that were a draw
+     */
+    public Rating(String trainerName, double rating, int rank, int wins, int losses, int draws) {
+        this.trainerName = trainerName;
+        this.rating = rating;
+        this.rank = rank;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+    }
+
+    public String getTrainerName() {
+        return trainerName;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getBattles() {
+        return wins + losses + draws;
+    }
+
+    public String toString() {
+        return String.format(Locale.ROOT, "%d. %s: %.1f (%dW %dD %dL)", rank, trainerName, rating, wins, draws, losses);
+    }
+}
@@ -0,0 +1,53 @@
+package pokemon.replay;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes files of {@link BattleRecord}s.
+ */
+public final class BattleArchive {
+
+    private BattleArchive() {
+    }
+
+    /**
+     * Adds records to the end of a file, creating the file if needed.
+     *
+     * @param path    the file
+     * @param records the records to add
+     * @throws IOException if writing fails
+     */
+    public static void append(Path path, List<BattleRecord> records) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (BattleRecord record : records) {
+                record.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Reads all records of a file.
+     *
+     * @param path the file
+     * @return the records, in the order they were written
+     * @throws IOException if reading fails or a record is malformed
+     */
+    public static List<BattleRecord> read(Path path) throws IOException {
+        List<BattleRecord> records = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (BattleRecord record = BattleRecord.readFrom(in); record != null; record = BattleRecord.readFrom(in)) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,287 @@
+package pokemon.replay;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything needed to play a gym session again exactly as it went: the seed of the gym's random generator,
+ * both rosters as they were when the session started, and every line the player typed, in order.
+ * The HP of all Pokemon at the end of the session is kept as well, so a replay can be checked against it.
+ * <p>
+ * Records are stored as text, one field per line with a tab after the field name, ending with an {@code end} line.
+ * Several records can follow each other in one file:
+ * <pre>
+ * seed      -4962768465676381896
+ * trainer   Ash
+ * challenger Fire 76 150 194 Charrizard      (type, level, HP, resource, name)
+ * gym       Water 90 180 1300 Gyarados
+ * decision  a
+ * result    -3,110,135 / 12,180             (final HP, challenger then gym)
+ * end
+ * </pre>
+ * When the two rosters share Pokemon, as when the gym fights with the player's own list, a {@code shared} line
+ * follows the rosters. It lists for every Pokemon, challenger then gym, the position of the first Pokemon it is
+ * the same object as, or -1, so a replay can share them again: {@code shared -1,-1,-1 / 0,1} for a gym that fights
+ * with the first two Pokemon of the player.
+ */
+public class BattleRecord {
+    private final long seed;
+    private final String trainerName;
+    private final List<RosterEntry> challenger;
+    private final List<RosterEntry> gym;
+    private final List<String> decisions;
+    private final int[] finalHp;
+    private final int[] sameAs;
+
+    /**
+     * Constructs a BattleRecord.
+     *
+     * @param seed        the seed of the gym's random generator
+     * @param trainerName the name of the player
+     * @param challenger  the player's Pokemon when the session started
+     * @param gym         the gym owner's Pokemon when the session started
+     * @param decisions   the lines the player typed, in order
+     * @param finalHp     the HP of the player's Pokemon and then of the gym owner's Pokemon when the session ended
+     */
+    public BattleRecord(long seed, String trainerName, List<RosterEntry> challenger, List<RosterEntry> gym,
+                        List<String> decisions, int[] finalHp) {
+        this(seed, trainerName, challenger, gym, decisions, finalHp, null);
+    }
+
+    /**
+     * Constructs a BattleRecord of rosters that share Pokemon.
+     *
+     * @param seed        the seed of the gym's random generator
+     * @param trainerName the name of the player
+     * @param challenger  the player's Pokemon when the session started
+     * @param gym         the gym owner's Pokemon when the session started
+     * @param decisions   the lines the player typed, in order
+     * @param finalHp     the HP of the player's Pokemon and then of the gym owner's Pokemon when the session ended
+     * @param sameAs      for every Pokemon, challenger then gym, the position of an earlier Pokemon it is the same
+     *                    object as, or -1; null if no Pokemon are shared
+     */
+    public BattleRecord(long seed, String trainerName, List<RosterEntry> challenger, List<RosterEntry> gym,
+                        List<String> decisions, int[] finalHp, int[] sameAs) {
+        if (finalHp.length != challenger.size() + gym.size()) {
+            throw new IllegalArgumentException("Expected " + (challenger.size() + gym.size()) + " final HP values, got "
+                    + finalHp.length);
+        }
+        this.seed = seed;
+        this.trainerName = trainerName;
+        this.challenger = Collections.unmodifiableList(new ArrayList<>(challenger));
+        this.gym = Collections.unmodifiableList(new ArrayList<>(gym));
+        this.decisions = Collections.unmodifiableList(new ArrayList<>(decisions));
+        this.finalHp = finalHp.clone();
+        this.sameAs = new int[finalHp.length];
+        Arrays.fill(this.sameAs, -1);
+        if (sameAs != null) {
+            if (sameAs.length != finalHp.length) {
+                throw new IllegalArgumentException("Expected " + finalHp.length + " shared positions, got "
+                        + sameAs.length);
+            }
+            for (int i = 0; i < sameAs.length; i++) {
+                if (sameAs[i] >= i || sameAs[i] < -1 || (sameAs[i] >= 0 && sameAs[sameAs[i]] != -1)) {
+                    throw new IllegalArgumentException("Position " + i + " can not be shared with " + sameAs[i]);
+                }
+                this.sameAs[i] = sameAs[i];
+            }
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getTrainerName() {
+        return trainerName;
+    }
+
+    public List<RosterEntry> getChallenger() {
+        return challenger;
+    }
+
+    public List<RosterEntry> getGym() {
+        return gym;
+    }
+
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    public int[] getFinalHp() {
+        return finalHp.clone();
+    }
+
+    /**
+     * Returns for every Pokemon, challenger then gym, the position of the first Pokemon it is the same object as.
+     *
+     * @return the positions, -1 for a Pokemon that is not shared
+     */
+    public int[] getSameAs() {
+        return sameAs.clone();
+    }
+
+    /**
+     * Tells whether the two rosters, or one roster with itself, share any Pokemon.
+     *
+     * @return true if any Pokemon is the same object as an earlier one
+     */
+    public boolean hasSharedPokemon() {
+        for (int position : sameAs) {
+            if (position >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the given Pokemon ended with the HP of this record.
+     *
+     * @param challenger the player's Pokemon after a replay
+     * @param gym        the gym owner's Pokemon after a replay
+     * @return true if every Pokemon has the recorded HP
+     */
+    public boolean matches(List<Pokemon> challenger, List<Pokemon> gym) {
+        if (challenger.size() + gym.size() != finalHp.length) {
+            return false;
+        }
+        for (int i = 0; i < challenger.size(); i++) {
+            if (challenger.get(i).getHp() != finalHp[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < gym.size(); i++) {
+            if (gym.get(i).getHp() != finalHp[challenger.size() + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes this record as text.
+     *
+     * @param out the writer to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write("seed\t" + seed + "\n");
+        out.write("trainer\t" + trainerName + "\n");
+        for (RosterEntry entry : challenger) {
+            writeEntry(out, "challenger", entry);
+        }
+        for (RosterEntry entry : gym) {
+            writeEntry(out, "gym", entry);
+        }
+        if (hasSharedPokemon()) {
+            out.write("shared\t" + join(sameAs) + "\n");
+        }
+        for (String decision : decisions) {
+            out.write("decision\t" + decision + "\n");
+        }
+        out.write("result\t" + join(finalHp) + "\n");
+        out.write("end\n");
+    }
+
+    /**
+     * Joins one number per Pokemon with commas, and the challenger's and the gym's numbers with a slash.
+     */
+    private String join(int[] values) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(i == challenger.size() ? " / " : ",");
+            }
+            text.append(values[i]);
+        }
+        return text.toString();
+    }
+
+    private static void writeEntry(Writer out, String side, RosterEntry entry) throws IOException {
+        out.write(side + "\t" + entry.getType() + "\t" + entry.getLevel() + "\t" + entry.getHp() + "\t"
+                + entry.getResourceLevel() + "\t" + entry.getName() + "\n");
+    }
+
+    /**
+     * Reads the next record written by {@link #writeTo(Writer)}.
+     *
+     * @param in the reader to read from
+     * @return the record, or null if the reader has no more records
+     * @throws IOException if reading fails or the record is malformed
+     */
+    public static BattleRecord readFrom(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        while (line != null && line.isEmpty()) {
+            line = in.readLine();
+        }
+        if (line == null) {
+            return null;
+        }
+        Long seed = null;
+        String trainerName = null;
+        List<RosterEntry> challenger = new ArrayList<>();
+        List<RosterEntry> gym = new ArrayList<>();
+        List<String> decisions = new ArrayList<>();
+        int[] finalHp = null;
+        int[] sameAs = null;
+
+        for (; line != null; line = in.readLine()) {
+            int tab = line.indexOf('\t');
+            String field = tab < 0 ? line : line.substring(0, tab);
+            String value = tab < 0 ? "" : line.substring(tab + 1);
+            try {
+                switch (field) {
+                    case "seed" -> seed = Long.parseLong(value);
+                    case "trainer" -> trainerName = value;
+                    case "challenger" -> challenger.add(parseEntry(value));
+                    case "gym" -> gym.add(parseEntry(value));
+                    case "shared" -> sameAs = parseNumbers(value);
+                    case "decision" -> decisions.add(value);
+                    case "result" -> finalHp = parseNumbers(value);
+                    case "end" -> {
+                        if (seed == null || trainerName == null || finalHp == null) {
+                            throw new IOException("Incomplete battle record");
+                        }
+                        return new BattleRecord(seed, trainerName, challenger, gym, decisions, finalHp, sameAs);
+                    }
+                    default -> throw new IOException("Unknown field in battle record: " + field);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed battle record line: " + line, e);
+            }
+        }
+        throw new IOException("Battle record without end");
+    }
+
+    private static RosterEntry parseEntry(String value) {
+        String[] parts = value.split("\t", 5);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Expected type, level, HP, resource and name");
+        }
+        return new RosterEntry(PokemonType.fromName(parts[0]), parts[4], Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+    }
+
+    private static int[] parseNumbers(String value) {
+        String[] parts = value.replace(" / ", ",").split(",");
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            numbers[i] = Integer.parseInt(parts[i]);
+        }
+        return numbers;
+    }
+
+    public String toString() {
+        return "BattleRecord of " + trainerName + ", seed " + seed + ", " + decisions.size() + " decisions, final HP "
+                + Arrays.toString(finalHp);
+    }
+}
@@ -0,0 +1,155 @@
+package pokemon.replay;
+
+import pokemon.GymIO;
+import pokemon.Pokemon;
+import pokemon.PokemonGymImpl;
+import pokemon.PokemonTrainer;
+import pokemon.metrics.GymMetrics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Records gym sessions and plays them again.
+ * <p>
+ * All randomness of a session comes from the gym's generator, see {@link PokemonGymImpl}, so a session is fully
+ * determined by the seed of that generator, the rosters it starts with and the lines the player types.
+ * A replay feeds the recorded lines to a fresh gym with the same seed and rosters, without any console output,
+ * and ends with the same HP for every Pokemon as the original session. A Pokemon that was on both rosters, or twice
+ * on one, is one Pokemon again in the replay, so damage to one side reaches the other as it did in the session.
+ * Replays are not counted in the gym metrics.
+ * Replays share no state, so many records can be checked at once.
+ */
+public final class BattleReplayer {
+
+    private BattleReplayer() {
+    }
+
+    /**
+     * Plays a gym session with a seeded generator and records it.
+     *
+     * @param gymPokemons the Pokemon of the gym owner
+     * @param trainer     the player
+     * @param io          the channel to the player
+     * @param seed        the seed of the gym's random generator
+     * @return the record of the session
+     */
+    public static BattleRecord record(List<Pokemon> gymPokemons, PokemonTrainer trainer, GymIO io, long seed) {
+        List<RosterEntry> challenger = entries(trainer.getPokemons());
+        List<RosterEntry> gym = entries(gymPokemons);
+        RecordingGymIO recording = new RecordingGymIO(io);
+        PokemonGymImpl session = new PokemonGymImpl(gymPokemons, new SplittableRandom(seed), recording);
+        try {
+            session.enteredTheGym(trainer);
+        } finally {
+            // the gym owner of this session listens to the caller's Pokemon, which outlive it
+            session.getGymOwner().detach();
+        }
+        return new BattleRecord(seed, trainer.getName(), challenger, gym, recording.getDecisions(),
+                finalHp(trainer.getPokemons(), gymPokemons), sameAs(trainer.getPokemons(), gymPokemons));
+    }
+
+    /**
+     * Plays a recorded session again on fresh Pokemon.
+     *
+     * @param record the record to play
+     * @return the record of the replay, with the HP the Pokemon ended with
+     */
+    public static BattleRecord replay(BattleRecord record) {
+        List<Pokemon> challenger = new ArrayList<>();
+        List<Pokemon> gym = new ArrayList<>();
+        pokemons(record, challenger, gym);
+        play(record, challenger, gym);
+        return new BattleRecord(record.getSeed(), record.getTrainerName(), record.getChallenger(), record.getGym(),
+                record.getDecisions(), finalHp(challenger, gym), record.getSameAs());
+    }
+
+    /**
+     * Plays a recorded session again and checks that it ends the same way.
+     * A replay that stops before using all recorded decisions does not match either.
+     *
+     * @param record the record to check
+     * @return true if every Pokemon ends with its recorded HP and every decision was used
+     */
+    public static boolean verify(BattleRecord record) {
+        List<Pokemon> challenger = new ArrayList<>();
+        List<Pokemon> gym = new ArrayList<>();
+        pokemons(record, challenger, gym);
+        return play(record, challenger, gym) && record.matches(challenger, gym);
+    }
+
+    /**
+     * Plays the recorded decisions on the given Pokemon.
+     *
+     * @return true if the gym asked for every recorded decision
+     */
+    private static boolean play(BattleRecord record, List<Pokemon> challenger, List<Pokemon> gym) {
+        ScriptedGymIO script = new ScriptedGymIO(record.getDecisions());
+        PokemonTrainer trainer = new PokemonTrainer(record.getTrainerName(), challenger);
+        new PokemonGymImpl(gym, new SplittableRandom(record.getSeed()), script, GymMetrics.DISABLED)
+                .enteredTheGym(trainer);
+        return script.isExhausted();
+    }
+
+    /**
+     * Checks many records at once, for example an archive after a change to the battle rules.
+     *
+     * @param records the records to check
+     * @return the records that no longer play out as recorded
+     */
+    public static List<BattleRecord> verifyAll(List<BattleRecord> records) {
+        return records.parallelStream().filter(record -> !verify(record)).toList();
+    }
+
+    private static List<RosterEntry> entries(List<Pokemon> pokemons) {
+        List<RosterEntry> entries = new ArrayList<>(pokemons.size());
+        for (Pokemon p : pokemons) {
+            entries.add(RosterEntry.of(p));
+        }
+        return entries;
+    }
+
+    /**
+     * Finds for every Pokemon, challenger then gym, the position of the first Pokemon it is the same object as.
+     */
+    private static int[] sameAs(List<Pokemon> challenger, List<Pokemon> gym) {
+        Map<Pokemon, Integer> first = new IdentityHashMap<>();
+        int[] sameAs = new int[challenger.size() + gym.size()];
+        for (int i = 0; i < sameAs.length; i++) {
+            Pokemon p = i < challenger.size() ? challenger.get(i) : gym.get(i - challenger.size());
+            Integer earlier = first.putIfAbsent(p, i);
+            sameAs[i] = earlier == null ? -1 : earlier;
+        }
+        return sameAs;
+    }
+
+    /**
+     * Builds fresh Pokemon for both rosters of a record, sharing the ones that were shared in the session.
+     */
+    private static void pokemons(BattleRecord record, List<Pokemon> challenger, List<Pokemon> gym) {
+        int[] sameAs = record.getSameAs();
+        List<RosterEntry> challengerEntries = record.getChallenger();
+        List<RosterEntry> gymEntries = record.getGym();
+        Pokemon[] built = new Pokemon[sameAs.length];
+        for (int i = 0; i < sameAs.length; i++) {
+            boolean challengerSide = i < challengerEntries.size();
+            RosterEntry entry = challengerSide ? challengerEntries.get(i) : gymEntries.get(i - challengerEntries.size());
+            built[i] = sameAs[i] >= 0 ? built[sameAs[i]] : entry.toPokemon();
+            (challengerSide ? challenger : gym).add(built[i]);
+        }
+    }
+
+    private static int[] finalHp(List<Pokemon> challenger, List<Pokemon> gym) {
+        int[] hp = new int[challenger.size() + gym.size()];
+        for (int i = 0; i < challenger.size(); i++) {
+            hp[i] = challenger.get(i).getHp();
+        }
+        for (int i = 0; i < gym.size(); i++) {
+            hp[challenger.size() + i] = gym.get(i).getHp();
+        }
+        return hp;
+    }
+}
@@ -0,0 +1,52 @@
+package pokemon.replay;
+
+import pokemon.GymIO;
+import pokemon.event.BattleEventSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes everything through to another channel and remembers every line the player typed.
+ */
+public class RecordingGymIO implements GymIO {
+    private final GymIO delegate;
+    private final List<String> decisions = new ArrayList<>();
+
+    /**
+     * Constructs a RecordingGymIO.
+     *
+     * @param delegate the channel to the player
+     */
+    public RecordingGymIO(GymIO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String readLine() {
+        String line = delegate.readLine();
+        if (line != null) {
+            decisions.add(line);
+        }
+        return line;
+    }
+
+    @Override
+    public void println(String line) {
+        delegate.println(line);
+    }
+
+    @Override
+    public BattleEventSink getEvents() {
+        return delegate.getEvents();
+    }
+
+    /**
+     * Returns the lines the player typed so far.
+     *
+     * @return the decisions, in order
+     */
+    public List<String> getDecisions() {
+        return decisions;
+    }
+}
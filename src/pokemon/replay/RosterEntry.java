@@ -0,0 +1,80 @@
+package pokemon.replay;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.types.PokemonFactory;
+
+/**
+ * The state a Pokemon was in when a recorded battle started.
+ * Food and sound are left out, they come from the type and never change the course of a battle.
+ */
+public class RosterEntry {
+    private final PokemonType type;
+    private final String name;
+    private final int level;
+    private final int hp;
+    private final int resourceLevel;
+
+    /**
+     * Constructs a RosterEntry.
+     *
+     * @param type          the type of the Pokemon
+     * @param name          the name of the Pokemon
+     * @param level         the level of the Pokemon
+     * @param hp            the HP of the Pokemon
+     * @param resourceLevel the level of the Pokemon's type resource
+     */
+    public RosterEntry(PokemonType type, String name, int level, int hp, int resourceLevel) {
+        this.type = type;
+        this.name = name;
+        this.level = level;
+        this.hp = hp;
+        this.resourceLevel = resourceLevel;
+    }
+
+    /**
+     * Records the current state of a Pokemon.
+     *
+     * @param pokemon the Pokemon
+     * @return a new entry
+     */
+    public static RosterEntry of(Pokemon pokemon) {
+        return new RosterEntry(pokemon.getPokemonType(), pokemon.getName(), pokemon.getLevel(), pokemon.getHp(),
+                pokemon.getResourceLevel());
+    }
+
+    /**
+     * Creates a Pokemon in the recorded state.
+     *
+     * @return a new Pokemon
+     */
+    public Pokemon toPokemon() {
+        Pokemon pokemon = PokemonFactory.create(type, name, level, hp, null, null);
+        pokemon.setResourceLevel(resourceLevel);
+        return pokemon;
+    }
+
+    public PokemonType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getHp() {
+        return hp;
+    }
+
+    public int getResourceLevel() {
+        return resourceLevel;
+    }
+
+    public String toString() {
+        return name + " (" + type.getDisplayName() + ", level " + level + ", HP " + hp + ")";
+    }
+}
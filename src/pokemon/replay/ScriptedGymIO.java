@@ -0,0 +1,48 @@
+package pokemon.replay;
+
+import pokemon.GymIO;
+import pokemon.event.BattleEventSink;
+import pokemon.event.NoOpEventSink;
+
+import java.util.List;
+
+/**
+ * Answers the gym with recorded lines and throws away everything the gym says.
+ * Once the lines run out, the player has gone.
+ */
+public class ScriptedGymIO implements GymIO {
+    private final List<String> decisions;
+    private int next;
+
+    /**
+     * Constructs a ScriptedGymIO.
+     *
+     * @param decisions the lines to answer with, in order
+     */
+    public ScriptedGymIO(List<String> decisions) {
+        this.decisions = decisions;
+    }
+
+    @Override
+    public String readLine() {
+        return next < decisions.size() ? decisions.get(next++) : null;
+    }
+
+    @Override
+    public void println(String line) {
+    }
+
+    @Override
+    public BattleEventSink getEvents() {
+        return NoOpEventSink.INSTANCE;
+    }
+
+    /**
+     * Tells whether the gym asked for every recorded line.
+     *
+     * @return true if no lines are left
+     */
+    public boolean isExhausted() {
+        return next == decisions.size();
+    }
+}
@@ -0,0 +1,366 @@
+package pokemon.roster;
+
+import pokemon.Pokemon;
+import pokemon.PokemonGymOwner;
+import pokemon.PokemonTrainer;
+import pokemon.PokemonType;
+import pokemon.Species;
+import pokemon.types.PokemonFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads rosters from CSV files with a column for the name, type, level, HP, food and sound of every Pokemon,
+ * for example {@code Raichu,Electric,80,160,Pokebrocks,Raaaaiiiiicccchhhhuuuuuuu!!!!}.
+ * <p>
+ * The first line that is not blank or a {@code #} comment is a header and is skipped. An empty food or sound
+ * column means the food or sound of the type.
+ * <p>
+ * The file is read through a channel into one reusable buffer and the rows are parsed straight from its bytes:
+ * numbers and types without creating strings, names, foods and sounds through a bounded table of strings that were
+ * seen before. Pokemon with the same type, food and sound share one {@link Species}. Only the Pokemon that are
+ * kept take memory, however large the file is.
+ * <p>
+ * A RosterLoader is not thread-safe.
+ */
+public class RosterLoader {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int COLUMNS = 6;
+    private static final int MAX_STRINGS = 1 << 12;
+    private static final int MAX_SPECIES = 1 << 10;
+    private static final PokemonType[] TYPES = PokemonType.values();
+    private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+
+    static {
+        for (PokemonType type : TYPES) {
+            TYPE_NAMES[type.ordinal()] = type.getDisplayName().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Receives the rows of a roster file one at a time.
+     */
+    public interface RowHandler {
+        /**
+         * Handles one row.
+         *
+         * @param name    the name of the Pokemon
+         * @param species the species of the Pokemon, shared with the other rows of the same type, food and sound
+         * @param level   the level of the Pokemon
+         * @param hp      the HP of the Pokemon
+         */
+        void row(String name, Species species, int level, int hp);
+    }
+
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final int[] columnStart = new int[COLUMNS];
+    private final int[] columnEnd = new int[COLUMNS];
+    private final StringTable strings = new StringTable(MAX_STRINGS);
+    private final Species[] defaultSpecies = new Species[TYPES.length];
+    private final int[] initialResource = new int[TYPES.length];
+    // open addressing on type, food and sound, so finding the species of a row creates no key object
+    private final Species[] species = new Species[MAX_SPECIES * 2];
+    private int speciesCount;
+    private long lineNumber;
+    private boolean headerSkipped;
+
+    public RosterLoader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a RosterLoader.
+     *
+     * @param bufferSize the size of the read buffer in bytes, which is also the longest line it can read
+     */
+    public RosterLoader(int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("bufferSize must be at least 64: " + bufferSize);
+        }
+        buffer = ByteBuffer.allocate(bufferSize);
+        bytes = buffer.array();
+        for (PokemonType type : TYPES) {
+            Pokemon prototype = PokemonFactory.create(type, "", 1, 1, null, null);
+            defaultSpecies[type.ordinal()] = prototype.getSpecies();
+            initialResource[type.ordinal()] = prototype.getResourceLevel();
+        }
+    }
+
+    /**
+     * Reads a roster file and hands every row to a handler, without keeping anything.
+     *
+     * @param path    the roster file
+     * @param handler the handler that receives the rows
+     * @return the number of rows read
+     * @throws IOException if reading fails or a row is malformed
+     */
+    public long load(Path path, RowHandler handler) throws IOException {
+        lineNumber = 0;
+        headerSkipped = false;
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int start = 0;
+            int limit = 0;
+            int scanned = 0;
+            while (true) {
+                if (start > 0) {
+                    System.arraycopy(bytes, start, bytes, 0, limit - start);
+                    limit -= start;
+                    scanned -= start;
+                    start = 0;
+                }
+                if (limit == bytes.length) {
+                    throw new IOException("Line " + (lineNumber + 1) + " is longer than " + bytes.length + " bytes");
+                }
+                buffer.limit(bytes.length).position(limit);
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    if (limit > start && parseLine(start, limit, handler)) {
+                        rows++;
+                    }
+                    return rows;
+                }
+                limit += read;
+                for (; scanned < limit; scanned++) {
+                    if (bytes[scanned] == '\n') {
+                        if (parseLine(start, scanned, handler)) {
+                            rows++;
+                        }
+                        start = scanned + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a roster file into a list of Pokemon.
+     *
+     * @param path the roster file
+     * @return the Pokemon in the order of the file
+     * @throws IOException if reading fails or a row is malformed
+     */
+    public List<Pokemon> loadPokemons(Path path) throws IOException {
+        List<Pokemon> pokemons = new ArrayList<>();
+        load(path, (name, rowSpecies, level, hp) -> pokemons.add(PokemonFactory.create(rowSpecies, name, level, hp)));
+        return pokemons;
+    }
+
+    /**
+     * Reads a roster file into the Pokemon of a trainer.
+     *
+     * @param trainerName the name of the trainer
+     * @param path        the roster file
+     * @return a new trainer with the Pokemon of the file
+     * @throws IOException if reading fails or a row is malformed
+     */
+    public PokemonTrainer loadTrainer(String trainerName, Path path) throws IOException {
+        return new PokemonTrainer(trainerName, loadPokemons(path));
+    }
+
+    /**
+     * Reads a roster file into the Pokemon of a gym owner.
+     *
+     * @param ownerName the name of the gym owner
+     * @param town      the town of the gym
+     * @param path      the roster file
+     * @return a new gym owner with the Pokemon of the file
+     * @throws IOException if reading fails or a row is malformed
+     */
+    public PokemonGymOwner loadGymOwner(String ownerName, String town, Path path) throws IOException {
+        return new PokemonGymOwner(ownerName, town, loadPokemons(path));
+    }
+
+    /**
+     * Reads a roster file into a store, without creating a Pokemon per row. Every Pokemon starts with the
+     * resource level of its type. The store does not keep food and sound.
+     *
+     * @param path  the roster file
+     * @param store the store the rows are added to
+     * @return the number of rows read
+     * @throws IOException if reading fails or a row is malformed
+     */
+    public long loadInto(Path path, RosterStore store) throws IOException {
+        return load(path, (name, rowSpecies, level, hp) ->
+                store.add(name, rowSpecies.getType(), level, hp, initialResource[rowSpecies.getTypeOrdinal()]));
+    }
+
+    /**
+     * Parses the line between from and to, without the line break.
+     *
+     * @return true if the line was a row
+     */
+    private boolean parseLine(int from, int to, RowHandler handler) throws IOException {
+        lineNumber++;
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        from = skipSpaces(from, to);
+        if (from == to || bytes[from] == '#') {
+            return false;
+        }
+        if (!headerSkipped) {
+            headerSkipped = true;
+            return false;
+        }
+
+        int column = 0;
+        columnStart[0] = from;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') {
+                if (column == COLUMNS - 1) {
+                    throw malformed("Expected " + COLUMNS + " columns");
+                }
+                columnEnd[column++] = i;
+                columnStart[column] = i + 1;
+            }
+        }
+        columnEnd[column] = to;
+        if (column != COLUMNS - 1) {
+            throw malformed("Expected " + COLUMNS + " columns");
+        }
+        for (int c = 0; c < COLUMNS; c++) {
+            columnStart[c] = skipSpaces(columnStart[c], columnEnd[c]);
+            int end = columnEnd[c];
+            while (end > columnStart[c] && bytes[end - 1] == ' ') {
+                end--;
+            }
+            columnEnd[c] = end;
+        }
+
+        if (columnStart[0] == columnEnd[0]) {
+            throw malformed("Missing name");
+        }
+        String name = strings.get(bytes, columnStart[0], columnEnd[0]);
+        int type = parseType(columnStart[1], columnEnd[1]);
+        int level = parseInt(columnStart[2], columnEnd[2]);
+        int hp = parseInt(columnStart[3], columnEnd[3]);
+        handler.row(name, species(type), level, hp);
+        return true;
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && bytes[from] == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int parseType(int from, int to) throws IOException {
+        for (int type = 0; type < TYPE_NAMES.length; type++) {
+            byte[] typeName = TYPE_NAMES[type];
+            if (to - from != typeName.length) {
+                continue;
+            }
+            int i = 0;
+            // ASCII letters only differ in case in bit 5
+            while (i < typeName.length && (bytes[from + i] | 0x20) == (typeName[i] | 0x20)) {
+                i++;
+            }
+            if (i == typeName.length) {
+                return type;
+            }
+        }
+        throw malformed("Unknown Pokemon type: " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    private int parseInt(int from, int to) throws IOException {
+        boolean negative = from < to && bytes[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 9) {
+            throw malformed("Not a number: " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed("Not a number: " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Finds the species for the type and the food and sound columns of the current row.
+     */
+    private Species species(int type) {
+        Species defaults = defaultSpecies[type];
+        String food = columnStart[4] == columnEnd[4]
+                ? defaults.getFood() : strings.get(bytes, columnStart[4], columnEnd[4]);
+        String sound = columnStart[5] == columnEnd[5]
+                ? defaults.getSound() : strings.get(bytes, columnStart[5], columnEnd[5]);
+
+        int mask = species.length - 1;
+        int slot = (31 * (31 * type + food.hashCode()) + sound.hashCode()) & mask;
+        for (Species known; (known = species[slot]) != null; slot = (slot + 1) & mask) {
+            if (known.getTypeOrdinal() == type && known.getFood().equals(food) && known.getSound().equals(sound)) {
+                return known;
+            }
+        }
+        Species created = defaults.withFood(food).withSound(sound);
+        if (speciesCount < MAX_SPECIES) {
+            species[slot] = created;
+            speciesCount++;
+        }
+        return created;
+    }
+
+    private IOException malformed(String message) {
+        return new IOException("Line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Turns bytes into strings, handing out the same string for the same bytes as long as it has room.
+     * Once full it creates a new string every time, so a file of unique names can not make it grow.
+     */
+    private static final class StringTable {
+        private final String[] strings;
+        private final byte[][] keys;
+        private final int[] hashes;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+
+        private StringTable(int maxSize) {
+            int capacity = Integer.highestOneBit(maxSize) * 2;
+            strings = new String[capacity];
+            keys = new byte[capacity][];
+            hashes = new int[capacity];
+            mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        private String get(byte[] bytes, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, bytes, from, to)) {
+                    return strings[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            String string = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            if (size < maxSize) {
+                keys[slot] = Arrays.copyOfRange(bytes, from, to);
+                hashes[slot] = hash;
+                strings[slot] = string;
+                size++;
+            }
+            return string;
+        }
+    }
+}
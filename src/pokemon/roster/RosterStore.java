@@ -0,0 +1,259 @@
+package pokemon.roster;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.types.PokemonFactory;
+
+import java.util.Arrays;
+
+/**
+ * Stores a very large number of Pokemon as rows of parallel primitive arrays instead of one object per Pokemon.
+ * <p>
+ * A row costs the HP, level, type ordinal and type resource as primitives plus a reference to the name,
+ * about 17 bytes against the 200 and more bytes of a {@link Pokemon} with its own strings and attack list.
+ * Food, sound and attacks are the same for every Pokemon of a type, so they are not stored per row.
+ * Rows are read and changed through their index or through a {@link Row} cursor,
+ * and can be turned into a full {@link Pokemon} when one is needed for a battle.
+ * <p>
+ * A RosterStore is not thread-safe.
+ */
+public class RosterStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private String[] names;
+    private int[] hp;
+    private int[] level;
+    private byte[] type;
+    private int[] resource;
+    private int size;
+
+    public RosterStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a RosterStore with room for the given number of Pokemon before it has to grow.
+     *
+     * @param capacity the initial number of rows
+     */
+    public RosterStore(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        names = new String[capacity];
+        hp = new int[capacity];
+        level = new int[capacity];
+        type = new byte[capacity];
+        resource = new int[capacity];
+    }
+
+    /**
+     * Adds a Pokemon to the store.
+     *
+     * @param name          the name of the Pokemon
+     * @param pokemonType   the type of the Pokemon
+     * @param level         the level of the Pokemon
+     * @param hp            the HP of the Pokemon
+     * @param resourceLevel the level of the Pokemon's type resource
+     * @return the row of the new Pokemon
+     */
+    public int add(String name, PokemonType pokemonType, int level, int hp, int resourceLevel) {
+        if (size == names.length) {
+            grow();
+        }
+        int row = size++;
+        this.names[row] = name;
+        this.type[row] = (byte) pokemonType.ordinal();
+        this.level[row] = level;
+        this.hp[row] = hp;
+        this.resource[row] = resourceLevel;
+        return row;
+    }
+
+    /**
+     * Adds the current state of a Pokemon to the store.
+     *
+     * @param pokemon the Pokemon to add
+     * @return the row of the new Pokemon
+     */
+    public int add(Pokemon pokemon) {
+        return add(pokemon.getName(), pokemon.getPokemonType(), pokemon.getLevel(), pokemon.getHp(),
+                pokemon.getResourceLevel());
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, names.length + (names.length >> 1));
+        names = Arrays.copyOf(names, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        level = Arrays.copyOf(level, capacity);
+        type = Arrays.copyOf(type, capacity);
+        resource = Arrays.copyOf(resource, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int row) {
+        return names[check(row)];
+    }
+
+    public PokemonType getType(int row) {
+        return PokemonType.fromOrdinal(type[check(row)]);
+    }
+
+    public int getTypeOrdinal(int row) {
+        return type[check(row)];
+    }
+
+    public int getLevel(int row) {
+        return level[check(row)];
+    }
+
+    public void setLevel(int row, int value) {
+        level[check(row)] = value;
+    }
+
+    public int getHp(int row) {
+        return hp[check(row)];
+    }
+
+    public void setHp(int row, int value) {
+        hp[check(row)] = value;
+    }
+
+    public int getResourceLevel(int row) {
+        return resource[check(row)];
+    }
+
+    public void setResourceLevel(int row, int value) {
+        resource[check(row)] = value;
+    }
+
+    /**
+     * Creates a full Pokemon from a row, for example to let it fight in a battle.
+     * Changes to the Pokemon are not written back until {@link #update(int, Pokemon)} is called.
+     *
+     * @param row the row to read
+     * @return a new Pokemon with the state of the row
+     */
+    public Pokemon toPokemon(int row) {
+        check(row);
+        Pokemon pokemon = PokemonFactory.create(PokemonType.fromOrdinal(type[row]), names[row], level[row], hp[row],
+                null, null);
+        pokemon.setResourceLevel(resource[row]);
+        return pokemon;
+    }
+
+    /**
+     * Writes the HP, level and type resource of a Pokemon back into a row.
+     *
+     * @param row     the row to write
+     * @param pokemon the Pokemon whose state is copied into the row
+     */
+    public void update(int row, Pokemon pokemon) {
+        check(row);
+        hp[row] = pokemon.getHp();
+        level[row] = pokemon.getLevel();
+        resource[row] = pokemon.getResourceLevel();
+    }
+
+    /**
+     * Returns a cursor positioned on the given row. The cursor can be moved to other rows,
+     * so one cursor can walk over the whole store without creating an object per Pokemon.
+     *
+     * @param row the row to position the cursor on
+     * @return a new cursor
+     */
+    public Row row(int row) {
+        return new Row(check(row));
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    /**
+     * A movable view on one row of the store, with the same accessors as a {@link Pokemon}.
+     */
+    public final class Row {
+        private int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Moves the cursor to another row.
+         *
+         * @param row the row to view
+         * @return this cursor
+         */
+        public Row moveTo(int row) {
+            this.row = check(row);
+            return this;
+        }
+
+        public String getName() {
+            return names[row];
+        }
+
+        public PokemonType getType() {
+            return PokemonType.fromOrdinal(type[row]);
+        }
+
+        public int getTypeOrdinal() {
+            return type[row];
+        }
+
+        public int getLevel() {
+            return level[row];
+        }
+
+        public void setLevel(int value) {
+            level[row] = value;
+        }
+
+        public int getHp() {
+            return hp[row];
+        }
+
+        public void setHp(int value) {
+            hp[row] = value;
+        }
+
+        public int getResourceLevel() {
+            return resource[row];
+        }
+
+        public void setResourceLevel(int value) {
+            resource[row] = value;
+        }
+
+        /**
+         * Reduces the HP of the viewed Pokemon.
+         *
+         * @param damage the amount of damage to reduce from the HP
+         * @return true if the Pokemon fainted
+         */
+        public boolean gotHit(int damage) {
+            hp[row] -= damage;
+            return hp[row] <= 0;
+        }
+
+        public Pokemon toPokemon() {
+            return RosterStore.this.toPokemon(row);
+        }
+
+        public String toString() {
+            return "Pokemon: " + names[row] + " Level: " + level[row] + " HP: " + hp[row];
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package pokemon.server;
+
+import pokemon.Pokemon;
+import pokemon.PokemonGymImpl;
+import pokemon.PokemonTrainer;
+import pokemon.battle.BattleExecutors;
+import pokemon.event.EventLevel;
+import pokemon.types.ElectricPokemon;
+import pokemon.types.FirePokemon;
+import pokemon.types.GrassPokemon;
+import pokemon.types.WaterPokemon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hosts many gym sessions in one JVM, one per TCP connection on localhost.
+ * <p>
+ * Every connection plays the same game as {@code Main}: the player enters a name, gets a copy of the roster and may
+ * enter the gym. Each session runs on its own thread, a virtual thread where the runtime has them, with its own
+ * copies of the Pokemon and its own generator. Connections beyond the session limit are told the gym is full.
+ * A player that sends nothing for the idle timeout is disconnected, so idle connections do not hold on to sessions.
+ * Try it with {@code nc localhost 7777}.
+ */
+public class GymServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777;
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    private static final long ACCEPT_BACKOFF_MILLIS = 10;
+
+    private static final byte[] FULL = "The gym is full, please come back later\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final int port;
+    private final List<Pokemon> roster;
+    private final Semaphore sessions;
+    private final int maxSessions;
+    private final SplittableRandom random;
+    private final EventLevel threshold;
+    private final int idleTimeoutMillis;
+    private final ExecutorService executor = BattleExecutors.newPerTaskExecutor("gym-session");
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public GymServer(int port, int maxSessions, List<Pokemon> roster, long seed, EventLevel threshold) {
+        this(port, maxSessions, roster, seed, threshold, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructs a GymServer. Nothing is opened until {@link #start()} is called.
+     *
+     * @param port              the port to listen on, or 0 for any free port
+     * @param maxSessions       the maximum number of players in the gym at the same time
+     * @param roster            the Pokemon every player and the gym owner get a copy of
+     * @param seed              the seed the generators of all sessions are derived from
+     * @param threshold         the lowest level of battle events that is sent to the players
+     * @param idleTimeoutMillis how long a player may take to answer before being disconnected
+     */
+    public GymServer(int port, int maxSessions, List<Pokemon> roster, long seed, EventLevel threshold,
+                     int idleTimeoutMillis) {
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("idleTimeoutMillis must be positive: " + idleTimeoutMillis);
+        }
+        this.port = port;
+        this.maxSessions = maxSessions;
+        this.sessions = new Semaphore(maxSessions);
+        this.roster = List.copyOf(roster);
+        this.random = new SplittableRandom(seed);
+        this.threshold = threshold;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Starts listening on localhost and accepting players.
+     *
+     * @throws IOException if the port cannot be opened
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("The server is already started");
+        }
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "gym-acceptor");
+        acceptor.start();
+    }
+
+    public synchronized int getPort() {
+        if (serverSocket == null) {
+            throw new IllegalStateException("The server is not started");
+        }
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return maxSessions - sessions.availablePermits();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                // running out of file descriptors fails every accept at once, give the sessions time to end
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS));
+                continue;
+            }
+
+            if (!sessions.tryAcquire()) {
+                refuse(socket);
+                continue;
+            }
+            // split on the acceptor thread, the only thread that touches the root generator
+            SplittableRandom sessionRandom = random.split();
+            try {
+                executor.execute(() -> {
+                    try {
+                        serve(socket, sessionRandom);
+                    } finally {
+                        sessions.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                sessions.release();
+                refuse(socket);
+            }
+        }
+    }
+
+    /**
+     * Tells a player the gym is full and hangs up, on the acceptor thread. The message is written in one call into
+     * the empty send buffer of the new connection and the socket is closed without lingering, so neither waits for
+     * the player to read, however slow the player is.
+     */
+    private void refuse(Socket socket) {
+        try (socket) {
+            socket.setSoLinger(false, 0);
+            socket.getOutputStream().write(FULL);
+        } catch (IOException e) {
+            // the player is gone already
+        }
+    }
+
+    /**
+     * Plays one player's session, the same way {@code Main} does on the console.
+     */
+    private void serve(Socket socket, SplittableRandom sessionRandom) {
+        try (SocketGymIO io = new SocketGymIO(socket, threshold)) {
+            // a read that times out ends the session like a closed connection
+            socket.setSoTimeout(idleTimeoutMillis);
+            io.println("First player please enter your name: ");
+            String name = io.readLine();
+            if (name == null) {
+                return;
+            }
+            PokemonTrainer player = new PokemonTrainer(name, copyRoster());
+            PokemonGymImpl gym = new PokemonGymImpl(copyRoster(), sessionRandom, io);
+            io.println("To start your game, we have given you " + player.getPokemons().size() + " Pokemons to use");
+            io.println("these are the Pokemons you get:");
+            gym.printPokemon(player.getPokemons());
+            io.println("Would you like to enter a gym looking for a fight?");
+            io.println("Please enter yes or no");
+            if ("yes".equals(io.readLine())) {
+                gym.enteredTheGym(player);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Pokemon> copyRoster() {
+        List<Pokemon> copies = new ArrayList<>(roster.size());
+        for (Pokemon p : roster) {
+            copies.add(p.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Stops accepting players. Sessions that are running are left to finish.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts a server with the roster from {@code Main}.
+     *
+     * @param args optionally the port to listen on and the maximum number of sessions
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        List<Pokemon> roster = List.of(
+                new FirePokemon("Charrizard", 76, 150, "firenougats", "GRRRRRRRRRRRRRRR"),
+                new WaterPokemon("Blastoise", 40, 110, "Pokeflakes", "Blaaaaasssssstooooiiiiissss"),
+                new GrassPokemon("Venusaur", 50, 135, "Pokeleafs", "Veeeeeeeeennnnnuuuuuusaur"),
+                new GrassPokemon("Ditto", 60, 140, "Everything", "Dittto diiiito "),
+                new ElectricPokemon("Raichu", 80, 160, "Pokebrocks", "Raaaaiiiiicccchhhhuuuuuuu!!!!"),
+                new WaterPokemon("Gyarados", 90, 180, "Pokeflakes", "Gyaaaaaaaaarrrraaaadoooos"));
+        GymServer server = new GymServer(port, maxSessions, roster, System.nanoTime(), EventLevel.INFO);
+        server.start();
+        System.out.println("Gym server listening on localhost:" + server.getPort()
+                + (BattleExecutors.hasVirtualThreads() ? " with virtual threads" : ""));
+    }
+}
@@ -0,0 +1,116 @@
+package pokemon.server;
+
+import pokemon.GymIO;
+import pokemon.event.BattleEventSink;
+import pokemon.event.EventLevel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A gym channel over a TCP connection. Output is buffered and sent in one go when the gym waits for the player's
+ * next answer, so a whole turn of battle messages costs one write. The buffers are kept small, as a server holds
+ * one of these per connected player.
+ */
+public class SocketGymIO implements GymIO, AutoCloseable {
+    private static final int READ_BUFFER = 256;
+    private static final int WRITE_BUFFER = 2048;
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final Writer writer;
+    private final BattleEventSink events;
+    private boolean closed;
+
+    /**
+     * Constructs a SocketGymIO on a connected socket.
+     *
+     * @param socket    the connection to the player
+     * @param threshold the lowest level of battle events that is sent to the player
+     * @throws IOException if the socket's streams cannot be opened
+     */
+    public SocketGymIO(Socket socket, EventLevel threshold) throws IOException {
+        this.socket = socket;
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), READ_BUFFER);
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), WRITE_BUFFER);
+        this.events = new BattleEventSink() {
+            @Override
+            public boolean isEnabled(EventLevel level) {
+                return !closed && level.isAtLeast(threshold);
+            }
+
+            @Override
+            public void emit(EventLevel level, String message) {
+                println(message);
+            }
+        };
+    }
+
+    @Override
+    public String readLine() {
+        if (closed) {
+            return null;
+        }
+        try {
+            writer.flush();
+            String line = reader.readLine();
+            if (line == null) {
+                closed = true;
+            }
+            return line;
+        } catch (SocketTimeoutException e) {
+            // the player went quiet for longer than the read timeout, end the session as if the player left
+            closed = true;
+            return null;
+        } catch (IOException e) {
+            closed = true;
+            return null;
+        }
+    }
+
+    @Override
+    public void println(String line) {
+        if (closed) {
+            return;
+        }
+        try {
+            writer.write(line);
+            writer.write("\r\n");
+        } catch (IOException e) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public BattleEventSink getEvents() {
+        return events;
+    }
+
+    /**
+     * Sends what is still buffered and closes the connection.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!closed) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // the player is gone already, nothing left to send
+        } finally {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing a broken connection, nothing to recover
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package pokemon.snapshot;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The state of a battle between a challenger and a gym owner at the start of a move, in a fixed binary layout.
+ * <p>
+ * A snapshot holds, for both sides, the type, level, HP and type resource of up to {@link #MAX_POKEMON} Pokemon in
+ * roster order, which Pokemon is active, the turn number and whose move it is. Names, food and sound are not stored:
+ * a snapshot is restored onto the same rosters it was taken from. Every snapshot takes exactly {@link #BYTES} bytes,
+ * so the n-th snapshot of a {@link SnapshotFile} is found without reading the ones before it.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ * offset  size
+ *      0     4  turn
+ *      4     1  side to move, 0 for the gym owner and 1 for the challenger
+ *      5     1  active slot of the challenger, or -1
+ *      6     1  active slot of the gym owner, or -1
+ *      7     9  reserved
+ *     16   96  challenger slots, 6 times: type ordinal (1, -1 when empty), reserved (3), level (4), HP (4), resource (4)
+ *    112   96  gym owner slots, same layout
+ * </pre>
+ * A snapshot is mutable so one instance can be reused while scanning many records.
+ */
+public class BattleSnapshot {
+    public static final int MAX_POKEMON = 6;
+    public static final int SLOT_BYTES = 16;
+    public static final int BYTES = 16 + 2 * MAX_POKEMON * SLOT_BYTES;
+
+    public static final byte OWNER = 0;
+    public static final byte CHALLENGER = 1;
+
+    private static final int CHALLENGER_SLOTS = 16;
+
+    private int turn;
+    private byte toMove;
+    private byte challengerActive = -1;
+    private byte ownerActive = -1;
+    private final byte[] type = new byte[2 * MAX_POKEMON];
+    private final int[] level = new int[2 * MAX_POKEMON];
+    private final int[] hp = new int[2 * MAX_POKEMON];
+    private final int[] resource = new int[2 * MAX_POKEMON];
+
+    public BattleSnapshot() {
+        clear();
+    }
+
+    /**
+     * Takes a snapshot of a battle.
+     *
+     * @param challenger       the challenger
+     * @param challengerActive the challenger's Pokemon in battle, or null if none is sent out yet
+     * @param owner            the gym owner
+     * @param ownerActive      the gym owner's Pokemon in battle, or null if none is sent out yet
+     * @param turn             the number of the current turn
+     * @param toMove           {@link #CHALLENGER} or {@link #OWNER}
+     * @return a new snapshot
+     */
+    public static BattleSnapshot capture(PokemonTrainer challenger, Pokemon challengerActive,
+                                         PokemonTrainer owner, Pokemon ownerActive, int turn, byte toMove) {
+        BattleSnapshot snapshot = new BattleSnapshot();
+        snapshot.set(challenger, challengerActive, owner, ownerActive, turn, toMove);
+        return snapshot;
+    }
+
+    /**
+     * Overwrites this snapshot with the current state of a battle.
+     *
+     * @param challenger       the challenger
+     * @param challengerActive the challenger's Pokemon in battle, or null if none is sent out yet
+     * @param owner            the gym owner
+     * @param ownerActive      the gym owner's Pokemon in battle, or null if none is sent out yet
+     * @param turn             the number of the current turn
+     * @param toMove           {@link #CHALLENGER} or {@link #OWNER}
+     * @throws IllegalArgumentException if a roster has more than {@link #MAX_POKEMON} Pokemon
+     */
+    public void set(PokemonTrainer challenger, Pokemon challengerActive,
+                    PokemonTrainer owner, Pokemon ownerActive, int turn, byte toMove) {
+        if (toMove != CHALLENGER && toMove != OWNER) {
+            throw new IllegalArgumentException("Unknown side to move: " + toMove);
+        }
+        clear();
+        this.turn = turn;
+        this.toMove = toMove;
+        this.challengerActive = capture(challenger, challengerActive, 0);
+        this.ownerActive = capture(owner, ownerActive, MAX_POKEMON);
+    }
+
+    private byte capture(PokemonTrainer trainer, Pokemon active, int first) {
+        List<Pokemon> pokemons = trainer.getPokemons();
+        if (pokemons.size() > MAX_POKEMON) {
+            throw new IllegalArgumentException(trainer.getName() + " has more than " + MAX_POKEMON + " Pokemon");
+        }
+        byte activeSlot = -1;
+        for (int i = 0; i < pokemons.size(); i++) {
+            Pokemon p = pokemons.get(i);
+            type[first + i] = (byte) p.getTypeOrdinal();
+            level[first + i] = p.getLevel();
+            hp[first + i] = p.getHp();
+            resource[first + i] = p.getResourceLevel();
+            if (p == active) {
+                activeSlot = (byte) i;
+            }
+        }
+        return activeSlot;
+    }
+
+    /**
+     * Puts the HP, level and type resource of this snapshot back onto the rosters it was taken from.
+     *
+     * @param challenger the challenger
+     * @param owner      the gym owner
+     * @throws IllegalStateException if a roster does not match the one in the snapshot
+     */
+    public void restore(PokemonTrainer challenger, PokemonTrainer owner) {
+        restore(challenger, 0);
+        restore(owner, MAX_POKEMON);
+    }
+
+    private void restore(PokemonTrainer trainer, int first) {
+        List<Pokemon> pokemons = trainer.getPokemons();
+        int count = 0;
+        while (count < MAX_POKEMON && type[first + count] >= 0) {
+            count++;
+        }
+        if (pokemons.size() != count) {
+            throw new IllegalStateException(trainer.getName() + " has " + pokemons.size()
+                    + " Pokemon, the snapshot has " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            Pokemon p = pokemons.get(i);
+            if (p.getTypeOrdinal() != type[first + i]) {
+                throw new IllegalStateException(p.getName() + " is not of the type in slot " + i + " of the snapshot");
+            }
+            p.setLevel(level[first + i]);
+            p.setHp(hp[first + i]);
+            p.setResourceLevel(resource[first + i]);
+        }
+    }
+
+    /**
+     * Returns the challenger's Pokemon that was active when this snapshot was taken.
+     *
+     * @param challenger the challenger the snapshot was taken from
+     * @return the active Pokemon, or null if none was sent out
+     */
+    public Pokemon getChallengerActive(PokemonTrainer challenger) {
+        return challengerActive < 0 ? null : challenger.getPokemons().get(challengerActive);
+    }
+
+    /**
+     * Returns the gym owner's Pokemon that was active when this snapshot was taken.
+     *
+     * @param owner the gym owner the snapshot was taken from
+     * @return the active Pokemon, or null if none was sent out
+     */
+    public Pokemon getOwnerActive(PokemonTrainer owner) {
+        return ownerActive < 0 ? null : owner.getPokemons().get(ownerActive);
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public byte getToMove() {
+        return toMove;
+    }
+
+    /**
+     * Returns the HP stored for a Pokemon, without restoring the snapshot.
+     *
+     * @param side {@link #CHALLENGER} or {@link #OWNER}
+     * @param slot the position of the Pokemon in its trainer's roster
+     * @return the HP of the Pokemon
+     */
+    public int getHp(byte side, int slot) {
+        return hp[index(side, slot)];
+    }
+
+    /**
+     * Returns the level stored for a Pokemon, without restoring the snapshot.
+     *
+     * @param side {@link #CHALLENGER} or {@link #OWNER}
+     * @param slot the position of the Pokemon in its trainer's roster
+     * @return the level of the Pokemon
+     */
+    public int getLevel(byte side, int slot) {
+        return level[index(side, slot)];
+    }
+
+    /**
+     * Returns the type resource stored for a Pokemon, without restoring the snapshot.
+     *
+     * @param side {@link #CHALLENGER} or {@link #OWNER}
+     * @param slot the position of the Pokemon in its trainer's roster
+     * @return the resource level of the Pokemon
+     */
+    public int getResourceLevel(byte side, int slot) {
+        return resource[index(side, slot)];
+    }
+
+    private static int index(byte side, int slot) {
+        if (slot < 0 || slot >= MAX_POKEMON) {
+            throw new IndexOutOfBoundsException("slot " + slot);
+        }
+        return side == CHALLENGER ? slot : MAX_POKEMON + slot;
+    }
+
+    /**
+     * Writes this snapshot at the given position of a buffer, without moving the buffer's position.
+     * The buffer must be little-endian.
+     *
+     * @param buffer the buffer to write to
+     * @param offset the position of the first byte
+     */
+    public void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putInt(offset, turn);
+        buffer.put(offset + 4, toMove);
+        buffer.put(offset + 5, challengerActive);
+        buffer.put(offset + 6, ownerActive);
+        for (int i = 7; i < CHALLENGER_SLOTS; i++) {
+            buffer.put(offset + i, (byte) 0);
+        }
+        for (int i = 0; i < 2 * MAX_POKEMON; i++) {
+            int slot = offset + CHALLENGER_SLOTS + i * SLOT_BYTES;
+            buffer.putInt(slot, type[i] & 0xFF);
+            buffer.putInt(slot + 4, level[i]);
+            buffer.putInt(slot + 8, hp[i]);
+            buffer.putInt(slot + 12, resource[i]);
+        }
+    }
+
+    /**
+     * Overwrites this snapshot with the one at the given position of a buffer, without moving the buffer's position.
+     * The buffer must be little-endian.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the position of the first byte
+     */
+    public void readFrom(ByteBuffer buffer, int offset) {
+        turn = buffer.getInt(offset);
+        toMove = buffer.get(offset + 4);
+        challengerActive = buffer.get(offset + 5);
+        ownerActive = buffer.get(offset + 6);
+        for (int i = 0; i < 2 * MAX_POKEMON; i++) {
+            int slot = offset + CHALLENGER_SLOTS + i * SLOT_BYTES;
+            type[i] = buffer.get(slot);
+            level[i] = buffer.getInt(slot + 4);
+            hp[i] = buffer.getInt(slot + 8);
+            resource[i] = buffer.getInt(slot + 12);
+        }
+    }
+
+    private void clear() {
+        turn = 0;
+        toMove = OWNER;
+        challengerActive = -1;
+        ownerActive = -1;
+        for (int i = 0; i < 2 * MAX_POKEMON; i++) {
+            type[i] = -1;
+            level[i] = 0;
+            hp[i] = 0;
+            resource[i] = 0;
+        }
+    }
+
+    public String toString() {
+        return "BattleSnapshot turn " + turn + ", " + (toMove == CHALLENGER ? "challenger" : "gym owner") + " to move";
+    }
+}
@@ -0,0 +1,276 @@
+package pokemon.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A file of {@link BattleSnapshot} records, written and read through memory-mapped segments.
+ * <p>
+ * The file starts with a header of {@link #HEADER_BYTES} bytes holding a magic number, the record size and the
+ * number of records, followed by the records back to back. Appending a snapshot copies its bytes into the mapped
+ * file and bumps the count in the header, reading one copies them back, so neither goes through Java serialization
+ * or a system call. The file grows a segment of {@link #RECORDS_PER_SEGMENT} records at a time.
+ * Reading maps only the records the header counts, read-only, so it never grows the file, and a file opened with
+ * {@link #openForReading(Path)} is never written at all.
+ * <p>
+ * Appended records reach the disk when the operating system writes back the mapped pages, or right away on
+ * {@link #force()}. A SnapshotFile is not thread-safe.
+ */
+public class SnapshotFile implements AutoCloseable {
+    public static final int HEADER_BYTES = 64;
+    public static final int RECORDS_PER_SEGMENT = 1 << 16;
+
+    private static final int MAGIC = 0x504B534E; // "PKSN"
+    private static final int VERSION = 1;
+    private static final long SEGMENT_BYTES = (long) RECORDS_PER_SEGMENT * BattleSnapshot.BYTES;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final MappedByteBuffer header;
+    // full segments mapped for appending
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // read-only mappings of the counted records of segments not mapped for appending, null until read
+    private final List<MappedByteBuffer> readSegments = new ArrayList<>();
+    private long count;
+
+    private SnapshotFile(FileChannel channel, boolean writable) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+        this.header = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0,
+                HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Opens a snapshot file, creating it if it does not exist yet.
+     *
+     * @param path the path of the file
+     * @return the opened file, to be closed by the caller
+     * @throws IOException if the file can not be opened or is not a snapshot file
+     */
+    public static SnapshotFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            SnapshotFile file = new SnapshotFile(channel, true);
+            if (created) {
+                file.header.putInt(0, MAGIC);
+                file.header.putInt(4, VERSION);
+                file.header.putInt(8, BattleSnapshot.BYTES);
+                file.header.putLong(16, 0);
+            } else {
+                file.checkHeader(path);
+            }
+            file.count = file.header.getLong(16);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing snapshot file for reading only.
+     *
+     * @param path the path of the file
+     * @return the opened file, to be closed by the caller
+     * @throws IOException if the file can not be opened or is not a snapshot file
+     */
+    public static SnapshotFile openForReading(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is not a snapshot file");
+            }
+            SnapshotFile file = new SnapshotFile(channel, false);
+            file.checkHeader(path);
+            file.count = file.header.getLong(16);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void checkHeader(Path path) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a snapshot file");
+        }
+        if (header.getInt(4) != VERSION || header.getInt(8) != BattleSnapshot.BYTES) {
+            throw new IOException(path + " has snapshot version " + header.getInt(4) + " with records of "
+                    + header.getInt(8) + " bytes, expected version " + VERSION);
+        }
+        long records = header.getLong(16);
+        if (records < 0 || HEADER_BYTES + records * BattleSnapshot.BYTES > channel.size()) {
+            throw new IOException(path + " is truncated");
+        }
+    }
+
+    /**
+     * Returns the number of snapshots in the file.
+     *
+     * @return the number of records
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Appends a snapshot to the end of the file.
+     *
+     * @param snapshot the snapshot to write
+     * @return the index of the new record
+     * @throws IOException if the file can not grow
+     * @throws IllegalStateException if the file was opened for reading only
+     */
+    public long append(BattleSnapshot snapshot) throws IOException {
+        if (!writable) {
+            throw new IllegalStateException("The snapshot file was opened for reading only");
+        }
+        long index = count;
+        snapshot.writeTo(segment(index), offset(index));
+        count = index + 1;
+        header.putLong(16, count);
+        return index;
+    }
+
+    /**
+     * Reads the snapshot with the given index into an existing snapshot.
+     *
+     * @param index the index of the record
+     * @param into  the snapshot to overwrite
+     * @return the given snapshot
+     * @throws IOException if the file can not be mapped
+     */
+    public BattleSnapshot read(long index, BattleSnapshot into) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + count);
+        }
+        into.readFrom(readable(index), offset(index));
+        return into;
+    }
+
+    /**
+     * Reads the snapshot with the given index.
+     *
+     * @param index the index of the record
+     * @return a new snapshot
+     * @throws IOException if the file can not be mapped
+     */
+    public BattleSnapshot read(long index) throws IOException {
+        return read(index, new BattleSnapshot());
+    }
+
+    /**
+     * Reads the latest snapshot, to resume from the last checkpoint.
+     *
+     * @return the last snapshot, or null if the file is empty
+     * @throws IOException if the file can not be mapped
+     */
+    public BattleSnapshot last() throws IOException {
+        return count == 0 ? null : read(count - 1);
+    }
+
+    /**
+     * Reads all snapshots in order. The same snapshot instance is passed for every record,
+     * so the action must copy what it wants to keep.
+     *
+     * @param action the action to run for every snapshot
+     * @throws IOException if the file can not be mapped
+     */
+    public void scan(Consumer<BattleSnapshot> action) throws IOException {
+        BattleSnapshot snapshot = new BattleSnapshot();
+        for (long i = 0; i < count; i++) {
+            snapshot.readFrom(readable(i), offset(i));
+            action.accept(snapshot);
+        }
+    }
+
+    /**
+     * Returns a consumer that appends every snapshot it is given, for checkpointing a battle with
+     * {@link pokemon.battle.BattleEngine}.
+     *
+     * @return the consumer, which throws {@link UncheckedIOException} if the file can not grow
+     */
+    public Consumer<BattleSnapshot> appender() {
+        return snapshot -> {
+            try {
+                append(snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Forces all appended snapshots to the disk.
+     */
+    public void force() {
+        if (!writable) {
+            return;
+        }
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    private MappedByteBuffer segment(long index) throws IOException {
+        int number = (int) (index / RECORDS_PER_SEGMENT);
+        while (segments.size() <= number) {
+            long position = HEADER_BYTES + segments.size() * SEGMENT_BYTES;
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, position, SEGMENT_BYTES);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segments.add(segment);
+        }
+        return segments.get(number);
+    }
+
+    /**
+     * Returns the segment holding a counted record: the one mapped for appending if there is one, otherwise
+     * a read-only mapping of just the counted records of that segment.
+     */
+    private MappedByteBuffer readable(long index) throws IOException {
+        int number = (int) (index / RECORDS_PER_SEGMENT);
+        if (number < segments.size()) {
+            return segments.get(number);
+        }
+        while (readSegments.size() <= number) {
+            readSegments.add(null);
+        }
+        MappedByteBuffer segment = readSegments.get(number);
+        if (segment == null || segment.capacity() < offset(index) + BattleSnapshot.BYTES) {
+            long first = (long) number * RECORDS_PER_SEGMENT;
+            long records = Math.min(RECORDS_PER_SEGMENT, count - first);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * BattleSnapshot.BYTES,
+                    records * BattleSnapshot.BYTES);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            readSegments.set(number, segment);
+        }
+        return segment;
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_SEGMENT) * BattleSnapshot.BYTES;
+    }
+
+    /**
+     * Forces the snapshots to the disk and closes the file.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
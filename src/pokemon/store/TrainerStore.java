@@ -0,0 +1,582 @@
+package pokemon.store;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.PokemonType;
+import pokemon.replay.RosterEntry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps the rosters of trainers on disk, so the level and HP their Pokemon earned survive a restart.
+ * <p>
+ * Every change is appended to a write-ahead log as a record of its length, a CRC32 of its contents, a sequence
+ * number, and the trainer's whole roster. A background thread takes all records that are waiting, writes them
+ * with one call and forces them to disk once for the whole batch, so many battles finishing at the same time
+ * share one fsync. The future returned by {@link #save(PokemonTrainer)} completes when the record is on disk.
+ * <p>
+ * Once the log has grown past a limit, the background thread writes all rosters to a snapshot file, replaces the
+ * old snapshot in one atomic rename, forces the directory so the rename is on disk, and only then empties the log.
+ * A crash at any point leaves either the old snapshot with the full log or the new snapshot behind. Platforms that
+ * can not open a directory, such as Windows, leave the rename to the file system, which may then lose it in a crash
+ * right after compaction. On {@link #open(Path)} the snapshot is read and the records in the log after it are
+ * replayed. A record cut off by a crash fails its length or CRC check, it and anything after it are dropped, and
+ * the log is cut back to the last complete record.
+ * <p>
+ * All methods are thread-safe.
+ */
+public class TrainerStore implements AutoCloseable {
+    public static final String LOG_FILE = "trainers.log";
+    public static final String SNAPSHOT_FILE = "trainers.snapshot";
+    public static final long DEFAULT_COMPACT_BYTES = 16 << 20;
+
+    private static final int SNAPSHOT_MAGIC = 0x504B5453; // "PKTS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_BATCH = 4096;
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    // markers on the queue, told apart from records by identity
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+    private static final ByteBuffer COMPACT = ByteBuffer.allocate(0);
+
+    private final Path directory;
+    private final long compactBytes;
+    private final FileChannel log;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // guarded by this, together with the order of the queue
+    private final Map<String, List<RosterEntry>> rosters;
+    private long sequence;
+    // only touched by the background thread
+    private long logBytes;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * A record, or a marker, waiting for the background thread.
+     */
+    private static final class Pending {
+        private final ByteBuffer bytes;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Pending(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private TrainerStore(Path directory, long compactBytes, FileChannel log, long logBytes,
+                         Map<String, List<RosterEntry>> rosters, long sequence) {
+        this.directory = directory;
+        this.compactBytes = compactBytes;
+        this.log = log;
+        this.rosters = rosters;
+        this.sequence = sequence;
+        this.logBytes = logBytes;
+        this.writer = new Thread(this::drain, "trainer-store");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the store in a directory, creating the directory if needed and recovering the rosters saved before.
+     *
+     * @param directory the directory that holds the log and the snapshot
+     * @return the opened store, to be closed by the caller
+     * @throws IOException if the files can not be read or the snapshot is damaged
+     */
+    public static TrainerStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Opens the store in a directory, creating the directory if needed and recovering the rosters saved before.
+     *
+     * @param directory    the directory that holds the log and the snapshot
+     * @param compactBytes the size the log may grow to before it is compacted into a snapshot
+     * @return the opened store, to be closed by the caller
+     * @throws IOException if the files can not be read or the snapshot is damaged
+     */
+    public static TrainerStore open(Path directory, long compactBytes) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, List<RosterEntry>> rosters = new HashMap<>();
+        long snapshotSequence = readSnapshot(directory.resolve(SNAPSHOT_FILE), rosters);
+
+        FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long[] last = {snapshotSequence};
+            long valid = replay(log, snapshotSequence, rosters, last);
+            if (valid < log.size()) {
+                log.truncate(valid);
+                log.force(true);
+            }
+            // the log may have just been created, its directory entry has to be on disk before any save is
+            forceDirectory(directory);
+            log.position(valid);
+            return new TrainerStore(directory, compactBytes, log, valid, rosters, last[0]);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Saves the current roster of a trainer: the type, name, level, HP and resource level of each Pokemon.
+     *
+     * @param trainer the trainer to save
+     * @return a future that completes when the roster is on disk
+     */
+    public CompletableFuture<Void> save(PokemonTrainer trainer) {
+        List<RosterEntry> roster = new ArrayList<>();
+        for (Pokemon pokemon : trainer.getPokemons()) {
+            roster.add(RosterEntry.of(pokemon));
+        }
+        return append(PUT, trainer.getName(), List.copyOf(roster));
+    }
+
+    /**
+     * Forgets a trainer.
+     *
+     * @param trainerName the name of the trainer
+     * @return a future that completes when the removal is on disk
+     */
+    public CompletableFuture<Void> remove(String trainerName) {
+        return append(REMOVE, trainerName, null);
+    }
+
+    private CompletableFuture<Void> append(byte op, String trainerName, List<RosterEntry> roster) {
+        ByteBuffer record = encode(op, trainerName, roster);
+        Pending pending = new Pending(record);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The store is closed");
+            }
+            // sequence numbers are handed out in the order the records are queued, and so written
+            record.putLong(8, ++sequence);
+            seal(record);
+            apply(rosters, op, trainerName, roster);
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    /**
+     * Writes all rosters to a new snapshot and empties the log, without waiting for the log to reach its limit.
+     *
+     * @return a future that completes when the snapshot is on disk
+     */
+    public CompletableFuture<Void> compact() {
+        Pending pending = new Pending(COMPACT);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The store is closed");
+            }
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+
+    /**
+     * Returns the saved roster of a trainer.
+     *
+     * @param trainerName the name of the trainer
+     * @return the saved state of the trainer's Pokemon, or null if the trainer is not in the store
+     */
+    public synchronized List<RosterEntry> getRoster(String trainerName) {
+        return rosters.get(trainerName);
+    }
+
+    /**
+     * Creates a trainer with new Pokemon in the saved state.
+     *
+     * @param trainerName the name of the trainer
+     * @return a new trainer, or null if the trainer is not in the store
+     */
+    public PokemonTrainer load(String trainerName) {
+        List<RosterEntry> roster = getRoster(trainerName);
+        if (roster == null) {
+            return null;
+        }
+        List<Pokemon> pokemons = new ArrayList<>(roster.size());
+        for (RosterEntry entry : roster) {
+            pokemons.add(entry.toPokemon());
+        }
+        return new PokemonTrainer(trainerName, pokemons);
+    }
+
+    public synchronized Set<String> getTrainerNames() {
+        return Set.copyOf(rosters.keySet());
+    }
+
+    public synchronized int size() {
+        return rosters.size();
+    }
+
+    private static void apply(Map<String, List<RosterEntry>> rosters, byte op, String trainerName,
+                              List<RosterEntry> roster) {
+        if (op == PUT) {
+            rosters.put(trainerName, roster);
+        } else {
+            rosters.remove(trainerName);
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        List<ByteBuffer> records = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                boolean stop = false;
+                boolean compact = false;
+                for (Pending pending : batch) {
+                    if (pending.bytes == CLOSE) {
+                        stop = true;
+                    } else if (pending.bytes == COMPACT) {
+                        compact = true;
+                    } else {
+                        records.add(pending.bytes);
+                    }
+                }
+                IOException writeError = write(records);
+                IOException snapshotError = null;
+                if (writeError == null && (compact || logBytes > compactBytes)) {
+                    // a snapshot that fails leaves the log as it is, the next batch tries again
+                    snapshotError = writeSnapshot();
+                }
+                for (Pending pending : batch) {
+                    IOException error = pending.bytes == COMPACT && writeError == null ? snapshotError : writeError;
+                    if (error == null) {
+                        pending.done.complete(null);
+                    } else {
+                        pending.done.completeExceptionally(error);
+                    }
+                }
+                batch.clear();
+                records.clear();
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Appends a batch of records to the log and forces them to disk once.
+     */
+    private IOException write(List<ByteBuffer> records) {
+        if (failure != null) {
+            return failure;
+        }
+        if (records.isEmpty()) {
+            return null;
+        }
+        try {
+            ByteBuffer[] buffers = records.toArray(new ByteBuffer[0]);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            logBytes += remaining;
+            while (remaining > 0) {
+                remaining -= log.write(buffers);
+            }
+            log.force(false);
+            return null;
+        } catch (IOException e) {
+            // the log may end in a partial record now, refuse all further writes and let recovery cut it off
+            failure = e;
+            return e;
+        }
+    }
+
+    /**
+     * Writes all rosters to a new snapshot next to the old one, renames it over the old one and empties the log.
+     * Everything in the log was queued before the rosters were copied, so the snapshot holds all of it.
+     */
+    private IOException writeSnapshot() {
+        if (failure != null) {
+            return failure;
+        }
+        Map<String, List<RosterEntry>> copy;
+        long snapshotSequence;
+        synchronized (this) {
+            copy = new HashMap<>(rosters);
+            snapshotSequence = sequence;
+        }
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshotSequence);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, List<RosterEntry>> trainer : copy.entrySet()) {
+                writeString(out, trainer.getKey());
+                writeRoster(out, trainer.getValue());
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            return e;
+        }
+        try {
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // until the rename is on disk a crash brings back the old snapshot, which still needs the log
+            forceDirectory(directory);
+            log.truncate(0);
+            log.position(0);
+            log.force(true);
+            logBytes = 0;
+            return null;
+        } catch (IOException e) {
+            failure = e;
+            return e;
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, such as a file that was renamed or created in it, where the platform
+     * allows it. Failing to open or force the directory is not an error, unlike failing to force a data file.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms and file systems can not open or sync a directory, the best that can be done is nothing
+        }
+    }
+
+    private static long readSnapshot(Path snapshot, Map<String, List<RosterEntry>> rosters) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try (InputStream file = Files.newInputStream(snapshot)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(file, 1 << 16), crc));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(snapshot + " is not a trainer snapshot");
+            }
+            long snapshotSequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String trainerName = readString(in);
+                rosters.put(trainerName, readRoster(in));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException(snapshot + " is damaged");
+            }
+            return snapshotSequence;
+        } catch (EOFException e) {
+            throw new IOException(snapshot + " is truncated", e);
+        }
+    }
+
+    /**
+     * Replays the records in the log that are newer than the snapshot.
+     *
+     * @return the length of the log up to the end of the last complete record
+     */
+    private static long replay(FileChannel log, long snapshotSequence, Map<String, List<RosterEntry>> rosters,
+                               long[] last) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log), 1 << 16));
+        long valid = 0;
+        long size = log.size();
+        CRC32 crc = new CRC32();
+        while (size - valid >= 8) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 9 || length > MAX_RECORD_BYTES || length > size - valid - 8) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            valid += 8 + length;
+
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            long recordSequence = record.readLong();
+            byte op = record.readByte();
+            String trainerName = readString(record);
+            List<RosterEntry> roster = op == PUT ? readRoster(record) : null;
+            if (recordSequence > snapshotSequence) {
+                apply(rosters, op, trainerName, roster);
+            }
+            last[0] = Math.max(last[0], recordSequence);
+        }
+        return valid;
+    }
+
+    /**
+     * Encodes a record with room for its length, CRC and sequence number, which are filled in when it is queued.
+     */
+    private static ByteBuffer encode(byte op, String trainerName, List<RosterEntry> roster) {
+        byte[] name = trainerName.getBytes(StandardCharsets.UTF_8);
+        int size = 8 + 8 + 1 + 2 + name.length;
+        byte[][] names = null;
+        if (roster != null) {
+            names = new byte[roster.size()][];
+            size += 2;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = roster.get(i).getName().getBytes(StandardCharsets.UTF_8);
+                size += 1 + 4 + 4 + 4 + 2 + names[i].length;
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.position(16);
+        record.put(op);
+        putString(record, name);
+        if (roster != null) {
+            record.putShort(checkedShort(roster.size()));
+            for (int i = 0; i < names.length; i++) {
+                RosterEntry entry = roster.get(i);
+                record.put((byte) entry.getType().ordinal());
+                record.putInt(entry.getLevel());
+                record.putInt(entry.getHp());
+                record.putInt(entry.getResourceLevel());
+                putString(record, names[i]);
+            }
+        }
+        return record.flip();
+    }
+
+    /**
+     * Fills in the length and CRC of an encoded record, once its sequence number is set.
+     */
+    private static void seal(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, record.limit() - 8);
+        record.putInt(0, record.limit() - 8);
+        record.putInt(4, (int) crc.getValue());
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort(checkedShort(bytes.length));
+        buffer.put(bytes);
+    }
+
+    private static short checkedShort(int value) {
+        if (value > 0xFFFF) {
+            throw new IllegalArgumentException("Too long to store: " + value);
+        }
+        return (short) value;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(checkedShort(bytes.length));
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeRoster(DataOutputStream out, List<RosterEntry> roster) throws IOException {
+        out.writeShort(checkedShort(roster.size()));
+        for (RosterEntry entry : roster) {
+            out.writeByte(entry.getType().ordinal());
+            out.writeInt(entry.getLevel());
+            out.writeInt(entry.getHp());
+            out.writeInt(entry.getResourceLevel());
+            writeString(out, entry.getName());
+        }
+    }
+
+    private static List<RosterEntry> readRoster(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<RosterEntry> roster = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PokemonType type = PokemonType.fromOrdinal(in.readUnsignedByte());
+            int level = in.readInt();
+            int hp = in.readInt();
+            int resourceLevel = in.readInt();
+            roster.add(new RosterEntry(type, readString(in), level, hp, resourceLevel));
+        }
+        return List.copyOf(roster);
+    }
+
+    /**
+     * Writes everything that is still waiting, stops the background thread and closes the log.
+     *
+     * @throws UncheckedIOException if writing any of the changes failed
+     */
+    @Override
+    public void close() {
+        Pending pending = new Pending(CLOSE);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(pending);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pokemon.tournament;
+
+import pokemon.PokemonTrainer;
+
+import java.util.List;
+
+/**
+ * The matches of a single-elimination tournament, round by round, and its champion.
+ */
+public class Bracket {
+    private final List<List<MatchResult>> rounds;
+    private final PokemonTrainer champion;
+
+    public Bracket(List<List<MatchResult>> rounds, PokemonTrainer champion) {
+        this.rounds = rounds;
+        this.champion = champion;
+    }
+
+    /**
+     * Returns the matches of every round, starting with the first. Trainers with a bye do not play a match.
+     *
+     * @return the rounds of the tournament
+     */
+    public List<List<MatchResult>> getRounds() {
+        return rounds;
+    }
+
+    public PokemonTrainer getChampion() {
+        return champion;
+    }
+}
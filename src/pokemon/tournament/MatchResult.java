@@ -0,0 +1,53 @@
+package pokemon.tournament;
+
+import pokemon.PokemonTrainer;
+
+/**
+ * The outcome of one match in a tournament.
+ */
+public class MatchResult {
+    private final PokemonTrainer challenger;
+    private final PokemonTrainer defender;
+    private final PokemonTrainer winner;
+    private final int turns;
+
+    /**
+     * Constructs a MatchResult.
+     *
+     * @param challenger the trainer that challenged
+     * @param defender   the trainer that defended and attacked first
+     * @param winner     the trainer that won, or null for a draw
+     * @param turns      the number of turns that were played
+     */
+    public MatchResult(PokemonTrainer challenger, PokemonTrainer defender, PokemonTrainer winner, int turns) {
+        this.challenger = challenger;
+        this.defender = defender;
+        this.winner = winner;
+        this.turns = turns;
+    }
+
+    public PokemonTrainer getChallenger() {
+        return challenger;
+    }
+
+    public PokemonTrainer getDefender() {
+        return defender;
+    }
+
+    public PokemonTrainer getWinner() {
+        return winner;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public boolean isDraw() {
+        return winner == null;
+    }
+
+    public String toString() {
+        String result = isDraw() ? "draw" : winner.getName() + " wins";
+        return challenger.getName() + " vs " + defender.getName() + ": " + result + " after " + turns + " turns";
+    }
+}
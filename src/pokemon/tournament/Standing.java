@@ -0,0 +1,45 @@
+package pokemon.tournament;
+
+import pokemon.PokemonTrainer;
+
+/**
+ * The record of one trainer at the end of a round-robin tournament.
+ * A win is worth 3 points, a draw 1 point.
+ */
+public class Standing {
+    private final PokemonTrainer trainer;
+    private final int wins;
+    private final int losses;
+    private final int draws;
+
+    public Standing(PokemonTrainer trainer, int wins, int losses, int draws) {
+        this.trainer = trainer;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+    }
+
+    public PokemonTrainer getTrainer() {
+        return trainer;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getPoints() {
+        return 3 * wins + draws;
+    }
+
+    public String toString() {
+        return trainer.getName() + ": " + getPoints() + " points (" + wins + "W " + draws + "D " + losses + "L)";
+    }
+}
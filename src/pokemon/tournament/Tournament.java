@@ -0,0 +1,269 @@
+package pokemon.tournament;
+
+import pokemon.Pokemon;
+import pokemon.PokemonTrainer;
+import pokemon.battle.BattleEngine;
+import pokemon.battle.BattleExecutors;
+import pokemon.battle.BattleResult;
+import pokemon.battle.RandomStrategy;
+import pokemon.rating.Leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs round-robin and single-elimination tournaments between trainers and gym owners.
+ * <p>
+ * Every match is played by the {@link BattleEngine} on its own thread, a virtual thread where the runtime has them
+ * (see {@link BattleExecutors}). At most a configured number of matches run at the same time; scheduling waits
+ * for a free slot, so a tournament with millions of matches never queues more than that.
+ * Matches fight on copies of the trainers' Pokemon, so every match starts fully rested and a trainer can play
+ * several matches at once. Each match gets its own generator split off the tournament seed, which makes the
+ * results of a tournament repeatable.
+ */
+public class Tournament implements AutoCloseable {
+    private static final int REPLAYS_ON_DRAW = 3;
+
+    private final BattleEngine engine;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Semaphore slots;
+    private final SplittableRandom random;
+    private volatile Leaderboard leaderboard;
+
+    /**
+     * Constructs a Tournament that plays every match on its own thread.
+     *
+     * @param maxConcurrentMatches the maximum number of matches that run at the same time
+     * @param seed                 the seed all match generators are derived from
+     */
+    public Tournament(int maxConcurrentMatches, long seed) {
+        this(new BattleEngine(), BattleExecutors.newPerTaskExecutor("match"), true, maxConcurrentMatches, seed);
+    }
+
+    /**
+     * Constructs a Tournament that plays its matches on the given executor, which is not shut down by {@link #close()}.
+     *
+     * @param engine               the engine that plays each match
+     * @param executor             the executor that runs the matches
+     * @param maxConcurrentMatches the maximum number of matches that run at the same time
+     * @param seed                 the seed all match generators are derived from
+     */
+    public Tournament(BattleEngine engine, ExecutorService executor, int maxConcurrentMatches, long seed) {
+        this(engine, executor, false, maxConcurrentMatches, seed);
+    }
+
+    private Tournament(BattleEngine engine, ExecutorService executor, boolean ownsExecutor, int maxConcurrentMatches,
+                       long seed) {
+        if (maxConcurrentMatches <= 0) {
+            throw new IllegalArgumentException("maxConcurrentMatches must be positive: " + maxConcurrentMatches);
+        }
+        this.engine = engine;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.slots = new Semaphore(maxConcurrentMatches);
+        this.random = new SplittableRandom(seed);
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Lets every match played from now on, replays of drawn matches included, change the ratings of both entrants.
+     *
+     * @param leaderboard the leaderboard to record the matches on, or null to keep no ratings
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Lets every entrant play every other entrant once.
+     *
+     * @param entrants the trainers and gym owners taking part
+     * @return the standings, best first
+     * @throws InterruptedException if the thread is interrupted while waiting for matches
+     */
+    public List<Standing> roundRobin(List<? extends PokemonTrainer> entrants) throws InterruptedException {
+        int n = entrants.size();
+        AtomicIntegerArray wins = new AtomicIntegerArray(n);
+        AtomicIntegerArray losses = new AtomicIntegerArray(n);
+        AtomicIntegerArray draws = new AtomicIntegerArray(n);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long matches = (long) n * (n - 1) / 2;
+        if (matches > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many entrants for a round robin: " + n);
+        }
+        CountDownLatch done = new CountDownLatch((int) matches);
+
+        for (int i = 0; i < n && failure.get() == null; i++) {
+            for (int j = i + 1; j < n; j++) {
+                // alternate who attacks first, so no entrant defends in all of its matches
+                int challenger = (i + j) % 2 == 0 ? i : j;
+                int defender = challenger == i ? j : i;
+                SplittableRandom matchRandom = random.split();
+                schedule(() -> play(entrants.get(challenger), entrants.get(defender), matchRandom))
+                        .whenComplete((result, error) -> {
+                            if (error != null) {
+                                failure.compareAndSet(null, error);
+                            } else if (result.isDraw()) {
+                                draws.incrementAndGet(challenger);
+                                draws.incrementAndGet(defender);
+                            } else if (result.getWinner() == entrants.get(challenger)) {
+                                wins.incrementAndGet(challenger);
+                                losses.incrementAndGet(defender);
+                            } else {
+                                wins.incrementAndGet(defender);
+                                losses.incrementAndGet(challenger);
+                            }
+                            done.countDown();
+                        });
+            }
+        }
+        if (failure.get() == null) {
+            done.await();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("A match failed", failure.get());
+        }
+
+        List<Standing> standings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            standings.add(new Standing(entrants.get(i), wins.get(i), losses.get(i), draws.get(i)));
+        }
+        standings.sort(Comparator.comparingInt(Standing::getPoints).thenComparingInt(Standing::getWins).reversed());
+        return standings;
+    }
+
+    /**
+     * Plays a knock-out tournament. Entrants are paired in the order given; with an odd number left,
+     * the last one gets a bye to the next round. A drawn match is replayed a few times,
+     * and if it keeps ending in a draw the defender goes through.
+     *
+     * @param entrants the trainers and gym owners taking part
+     * @return every round that was played and the champion
+     * @throws InterruptedException if the thread is interrupted while waiting for matches
+     */
+    public Bracket singleElimination(List<? extends PokemonTrainer> entrants) throws InterruptedException {
+        if (entrants.isEmpty()) {
+            throw new IllegalArgumentException("A tournament needs at least one entrant");
+        }
+        List<List<MatchResult>> rounds = new ArrayList<>();
+        List<PokemonTrainer> remaining = new ArrayList<>(entrants);
+
+        while (remaining.size() > 1) {
+            List<CompletableFuture<MatchResult>> matches = new ArrayList<>(remaining.size() / 2);
+            for (int i = 0; i + 1 < remaining.size(); i += 2) {
+                PokemonTrainer challenger = remaining.get(i);
+                PokemonTrainer defender = remaining.get(i + 1);
+                SplittableRandom matchRandom = random.split();
+                matches.add(schedule(() -> playUntilDecided(challenger, defender, matchRandom)));
+            }
+
+            List<MatchResult> round = new ArrayList<>(matches.size());
+            List<PokemonTrainer> next = new ArrayList<>(remaining.size() / 2 + 1);
+            for (CompletableFuture<MatchResult> match : matches) {
+                MatchResult result = await(match);
+                round.add(result);
+                next.add(result.isDraw() ? result.getDefender() : result.getWinner());
+            }
+            if (remaining.size() % 2 == 1) {
+                next.add(remaining.get(remaining.size() - 1));
+            }
+            rounds.add(round);
+            remaining = next;
+        }
+        return new Bracket(rounds, remaining.get(0));
+    }
+
+    private MatchResult playUntilDecided(PokemonTrainer challenger, PokemonTrainer defender, SplittableRandom random) {
+        MatchResult result = play(challenger, defender, random);
+        for (int replay = 0; replay < REPLAYS_ON_DRAW && result.isDraw(); replay++) {
+            result = play(challenger, defender, random);
+        }
+        return result;
+    }
+
+    /**
+     * Plays one match on copies of both rosters.
+     */
+    private MatchResult play(PokemonTrainer challenger, PokemonTrainer defender, SplittableRandom random) {
+        PokemonTrainer challengerCopy = rested(challenger);
+        PokemonTrainer defenderCopy = rested(defender);
+        RandomStrategy strategy = new RandomStrategy(random);
+        BattleResult result;
+        try {
+            result = engine.battle(challengerCopy, strategy, defenderCopy, strategy, random);
+        } finally {
+            challengerCopy.detach();
+            defenderCopy.detach();
+        }
+
+        PokemonTrainer winner = null;
+        if (result.getWinner() == challengerCopy) {
+            winner = challenger;
+        } else if (result.getWinner() == defenderCopy) {
+            winner = defender;
+        }
+        Leaderboard ratings = leaderboard;
+        if (ratings != null) {
+            if (winner == null) {
+                ratings.recordDraw(challenger, defender);
+            } else {
+                ratings.recordWin(winner, winner == challenger ? defender : challenger);
+            }
+        }
+        return new MatchResult(challenger, defender, winner, result.getTurns());
+    }
+
+    private static PokemonTrainer rested(PokemonTrainer trainer) {
+        List<Pokemon> copies = new ArrayList<>(trainer.getPokemons().size());
+        for (Pokemon p : trainer.getPokemons()) {
+            copies.add(p.copy());
+        }
+        return new PokemonTrainer(trainer.getName(), copies);
+    }
+
+    /**
+     * Waits for a free slot and starts the match on the executor. The slot is given back when the match ends.
+     */
+    private <T> CompletableFuture<T> schedule(Supplier<T> match) throws InterruptedException {
+        slots.acquire();
+        try {
+            return CompletableFuture.supplyAsync(match, executor).whenComplete((result, error) -> slots.release());
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("A match failed", e.getCause());
+        }
+    }
+
+    /**
+     * Shuts down the executor if this tournament created it.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
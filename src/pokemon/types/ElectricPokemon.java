@@ -1,10 +1,18 @@
 package pokemon.types;
 
 import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.Species;
+import pokemon.event.EventLevel;
 
 public class ElectricPokemon extends Pokemon {
+    private static final Species SPECIES = Species.of(PokemonType.ELECTRIC, "Candy", "Zap");
     private static final int maxVoltage = 5000;
-    private int voltageLevel = 3590;
+    private static final int initialVoltageLevel = 3590;
+    private static final int VOLT_TACKLE = MoveRegistry.idOf(PokemonType.ELECTRIC, "Volt Tackle");
+    private static final int ELECTRO_BALL = MoveRegistry.idOf(PokemonType.ELECTRIC, "Electro Ball");
+    private static final int THUNDER = MoveRegistry.idOf(PokemonType.ELECTRIC, "Thunder");
+    private static final int THUNDER_PUNCH = MoveRegistry.idOf(PokemonType.ELECTRIC, "Thunder Punch");
     /**
      * Constructs an ElectricPokemon with the given name, level, HP, food, and sound.
      *
@@ -15,19 +23,25 @@ public class ElectricPokemon extends Pokemon {
      * @param sound the sound the ElectricPokemon makes
      */
     public ElectricPokemon(String name, int level, int hp, String food, String sound) {
-        super(name, level, hp, food, sound);
-        setType("Electric");
-        setFood("Candy");
-        setSound("Zap");
-        addAttack("VoltTackle");
-        addAttack("ElectroBall");
-        addAttack("Thunder");
-        addAttack("ThunderPunch");
+        this(SPECIES, name, level, hp);
+    }
+
+    /**
+     * Constructs an ElectricPokemon of the given species, for example one that likes another food.
+     *
+     * @param species the species, which must be of type Electric
+     * @param name    the name of the ElectricPokemon
+     * @param level   the level of the ElectricPokemon
+     * @param hp      the HP of the ElectricPokemon
+     */
+    ElectricPokemon(Species species, String name, int level, int hp) {
+        super(species, name, level, hp);
+        setVoltageLevel(initialVoltageLevel);
     }
 
 
     public int getVoltageLevel() {
-        return voltageLevel;
+        return getResourceLevel();
     }
 
     /**
@@ -36,102 +50,82 @@ public class ElectricPokemon extends Pokemon {
      * @param voltageLevel the voltage level to set
      */
     public void setVoltageLevel(int voltageLevel) {
-        this.voltageLevel = voltageLevel;
+        setResourceLevel(voltageLevel);
     }
 
     @Override
-    public void eats() {
-        System.out.println(getName() + " eats " + getFood());
-        setHp(getHp() + 10);
+    public int getMaxResourceLevel() {
+        return maxVoltage;
     }
 
     /**
-     * Calculates the damage dealt to an opponent based on their type and the attack weight.
-     * The damage is influenced by a type multiplier and the voltage level of the ElectricPokemon.
+     * The voltage of an ElectricPokemon is not limited by its maximum, it only weakens its attacks when it drops.
      *
-     * @param opponent the opponent Pokemon
-     * @param attackWeight the weight of the attack
-     * @return the calculated damage as an integer
+     * @param resourceLevel the requested voltage level
+     * @return the voltage level unchanged
      */
-    public int damageCalculator(Pokemon opponent, double attackWeight) {
-        double multiplier = switch (opponent.getType()) {
-            case "water" -> 2.5;
-            case "electric" -> 1.2;
-            case "fire" -> 1.5;
-            case "grass" -> 2.0;
-            default -> 1.0;
-        };
+    @Override
+    public int limitResourceLevel(int resourceLevel) {
+        return resourceLevel;
+    }
 
-        return (int) (multiplier * calculateDamage(voltageLevel, maxVoltage) * attackWeight);
+    @Override
+    public ElectricPokemon copy() {
+        ElectricPokemon copy = new ElectricPokemon(getName(), getLevel(), getHp(), getFood(), getSound());
+        copy.setSpecies(getSpecies());
+        copy.setVoltageLevel(getVoltageLevel());
+        return copy;
+    }
+
+    @Override
+    public void eats() {
+        if (isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " eats " + getFood());
+        }
+        addHp(10);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Volt Tackle attack.
-     * The attack deals 1.5 times the damage calculated by the damageCalculator method.
-     * The voltage level of the ElectricPokemon is reduced by 100.
-     * If the ElectricPokemon's HP is less than 100, it heals 30 HP.
+     * Attacks the opponent Pokemon with Volt Tackle.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the ElectricPokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the ElectricPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void voltTackle(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.5);
-        System.out.println(name + " used Volt Tackle on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setVoltageLevel(voltageLevel - 100);
-        // if the Pokemon's HP is less than 100, heal 30 HP
-        shouldHeal(30);
+    public void voltTackle(Pokemon pokemon, Pokemon enemy) {
+        useMove(VOLT_TACKLE, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Electro Ball attack.
-     * The attack deals 1.0 times the damage calculated by the damageCalculator method.
-     * The voltage level of the ElectricPokemon is reduced by 50.
-     * If the ElectricPokemon's HP is less than 100, it heals 5 HP.
+     * Attacks the opponent Pokemon with Electro Ball.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the ElectricPokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the ElectricPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void electroBall(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(name + " used Electro Ball on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setVoltageLevel(voltageLevel - 50);
-        shouldHeal(5);
+    public void electroBall(Pokemon pokemon, Pokemon enemy) {
+        useMove(ELECTRO_BALL, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Thunder attack.
-     * The attack deals 1.2 times the damage calculated by the damageCalculator method.
-     * The voltage level of the ElectricPokemon is reduced by 200.
-     * If the ElectricPokemon's HP is less than 100, it heals 15 HP.
+     * Attacks the opponent Pokemon with Thunder.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the ElectricPokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the ElectricPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void thunder(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.2);
-        System.out.println(name + " used Thunder on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setVoltageLevel(voltageLevel - 200);
-        shouldHeal(15);
+    public void thunder(Pokemon pokemon, Pokemon enemy) {
+        useMove(THUNDER, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Thunder Punch attack.
-     * The attack deals 1.0 times the damage calculated by the damageCalculator method.
-     * The voltage level of the ElectricPokemon is reduced by 100.
-     * If the ElectricPokemon's HP is less than 100, it heals 10 HP.
+     * Attacks the opponent Pokemon with Thunder Punch.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the ElectricPokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the ElectricPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void thunderPunch(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(name + " used Thunder Punch on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setVoltageLevel(voltageLevel - 100);
-        shouldHeal(10);
+    public void thunderPunch(Pokemon pokemon, Pokemon enemy) {
+        useMove(THUNDER_PUNCH, enemy);
     }
-
 }
@@ -1,10 +1,18 @@
 package pokemon.types;
 
 import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.Species;
+import pokemon.event.EventLevel;
 
 public class FirePokemon extends Pokemon {
+    private static final Species SPECIES = Species.of(PokemonType.FIRE, "Charcoal", "Roar");
     private static final int maxTemperature = 500;
-    private int temperature = 194;
+    private static final int initialTemperature = 194;
+    private static final int INFERNO = MoveRegistry.idOf(PokemonType.FIRE, "Inferno");
+    private static final int FIRE_LASH = MoveRegistry.idOf(PokemonType.FIRE, "Fire Lash");
+    private static final int FLAME_THROWER = MoveRegistry.idOf(PokemonType.FIRE, "Flame Thrower");
+    private static final int PYRO_BALL = MoveRegistry.idOf(PokemonType.FIRE, "Pyro Ball");
 
     /**
      * Constructs a FirePokemon with the given name, level, HP, food, and sound.
@@ -16,113 +24,93 @@ public class FirePokemon extends Pokemon {
      * @param sound the sound the FirePokemon makes
      */
     public FirePokemon(String name, int level, int hp, String food, String sound) {
-        super(name, level, hp, food, sound);
-        setType("Fire");
-        setFood("Charcoal");
-        setSound("Roar");
-        addAttack("Inferno");
-        addAttack("FireLash");
-        addAttack("FlameThrower");
-        addAttack("PyroBall");
+        this(SPECIES, name, level, hp);
+    }
+
+    /**
+     * Constructs a FirePokemon of the given species, for example one that likes another food.
+     *
+     * @param species the species, which must be of type Fire
+     * @param name    the name of the FirePokemon
+     * @param level   the level of the FirePokemon
+     * @param hp      the HP of the FirePokemon
+     */
+    FirePokemon(Species species, String name, int level, int hp) {
+        super(species, name, level, hp);
+        setTemperature(initialTemperature);
     }
 
     public int getTemperature() {
-        return temperature;
+        return getResourceLevel();
     }
 
     public void setTemperature(int temperature) {
-        this.temperature = Math.min(temperature, maxTemperature);
+        setResourceLevel(temperature);
     }
 
     @Override
-    public void eats() {
-        System.out.println(getName() + " eats " + getFood());
-        setTemperature(getTemperature() + 100);
-        setHp(getHp() + 30);
+    public int getMaxResourceLevel() {
+        return maxTemperature;
     }
 
-    /**
-     * Calculates the damage dealt to an opponent based on their type and the attack weight.
-     * The damage is influenced by a type multiplier and the temperature of the FirePokemon.
-     *
-     * @param opponent the opponent Pokemon
-     * @param attackWeight the weight of the attack
-     * @return the calculated damage as an integer
-     */
-    public int damageCalculator(Pokemon opponent, double attackWeight) {
-        double multiplier = switch (opponent.getType()) {
-            case "water" -> 2.0;
-            case "electric" -> 1.5;
-            case "fire" -> 1.2;
-            case "grass" -> 2.5;
-            default -> 1.0;
-        };
+    @Override
+    public FirePokemon copy() {
+        FirePokemon copy = new FirePokemon(getName(), getLevel(), getHp(), getFood(), getSound());
+        copy.setSpecies(getSpecies());
+        copy.setTemperature(getTemperature());
+        return copy;
+    }
 
-        return (int) (multiplier * calculateDamage(temperature, maxTemperature) * attackWeight);
+    @Override
+    public void eats() {
+        if (isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " eats " + getFood());
+        }
+        changeResourceLevel(100);
+        addHp(30);
     }
 
     /**
-     * Heals the FirePokemon based on the current temperature.
-     * The FirePokemon heals more when the temperature is higher.
+     * Attacks the opponent Pokemon with Inferno.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param healAmount the amount to heal
+     * @param pokemon the FirePokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
     public void inferno(Pokemon pokemon, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.5);
-        System.out.println(pokemon + " used Inferno on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setTemperature(temperature - 100);
-        shouldHeal(30);
+        useMove(INFERNO, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Fire Lash attack.
-     * The attack deals 1.0 times the damage calculated by the damageCalculator method.
-     * The temperature of the FirePokemon is reduced by 50.
-     * If the FirePokemon's HP is less than 100, it heals 10 HP.
+     * Attacks the opponent Pokemon with Fire Lash.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the FirePokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the FirePokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void fireLash(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(name + " used Fire Lash on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setTemperature(temperature - 50);
-        shouldHeal(10);
+    public void fireLash(Pokemon pokemon, Pokemon enemy) {
+        useMove(FIRE_LASH, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Flame Thrower attack.
-     * The attack deals 0.5 times the damage calculated by the damageCalculator method.
-     * The temperature of the FirePokemon is reduced by 25.
-     * If the FirePokemon's HP is less than 100, it heals 5 HP.
+     * Attacks the opponent Pokemon with Flame Thrower.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the FirePokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the FirePokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void flameThrower(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 0.5);
-        System.out.println(name + " used Flame Thrower on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setTemperature(temperature - 25);
-        shouldHeal(5);
+    public void flameThrower(Pokemon pokemon, Pokemon enemy) {
+        useMove(FLAME_THROWER, enemy);
     }
 
     /**
-     * Attacks the opponent Pokemon with the Pyro Ball attack.
-     * The attack deals 1.0 times the damage calculated by the damageCalculator method.
-     * The temperature of the FirePokemon is reduced by 50.
-     * If the FirePokemon's HP is less than 100, it heals 15 HP.
+     * Attacks the opponent Pokemon with Pyro Ball.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param name  the FirePokemon that uses the attack
-     * @param enemy the opponent Pokemon that receives the attack
+     * @param pokemon the FirePokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
-    public void pyroBall(Pokemon name, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(name + " used Pyro Ball on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setTemperature(temperature - 50);
-        shouldHeal(15);
+    public void pyroBall(Pokemon pokemon, Pokemon enemy) {
+        useMove(PYRO_BALL, enemy);
     }
 }
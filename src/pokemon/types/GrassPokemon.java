@@ -1,10 +1,18 @@
 package pokemon.types;
 
 import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.Species;
+import pokemon.event.EventLevel;
 
 public class GrassPokemon extends Pokemon {
+    private static final Species SPECIES = Species.of(PokemonType.GRASS, "Berries", "Rustle");
     private static final int maxChlorofylLevel = 1000;
-    private int chlorofylLevel = 600;
+    private static final int initialChlorofylLevel = 600;
+    private static final int LEAF_STORM = MoveRegistry.idOf(PokemonType.GRASS, "Leaf Storm");
+    private static final int SOLAR_BEAM = MoveRegistry.idOf(PokemonType.GRASS, "Solar Beam");
+    private static final int LEECH_SEED = MoveRegistry.idOf(PokemonType.GRASS, "Leech Seed");
+    private static final int LEAVE_BLADE = MoveRegistry.idOf(PokemonType.GRASS, "Leave Blade");
     /**
      * Constructs a Grass Pokemon with the given name, level, HP, food, and sound.
      *
@@ -15,18 +23,24 @@ public class GrassPokemon extends Pokemon {
      * @param sound the sound the Pokemon makes
      */
     public GrassPokemon(String name, int level, int hp, String food, String sound) {
-        super(name, level, hp, food, sound);
-        setType("Grass");
-        setFood("Berries");
-        setSound("Rustle");
-        addAttack("LeafStorm");
-        addAttack("SolarBeam");
-        addAttack("LeechSeed");
-        addAttack("LeaveBlade");
+        this(SPECIES, name, level, hp);
+    }
+
+    /**
+     * Constructs a GrassPokemon of the given species, for example one that likes another food.
+     *
+     * @param species the species, which must be of type Grass
+     * @param name    the name of the GrassPokemon
+     * @param level   the level of the GrassPokemon
+     * @param hp      the HP of the GrassPokemon
+     */
+    GrassPokemon(Species species, String name, int level, int hp) {
+        super(species, name, level, hp);
+        setChlorofylLevel(initialChlorofylLevel);
     }
 
     public int getChlorofylLevel() {
-        return chlorofylLevel;
+        return getResourceLevel();
     }
 
     /**
@@ -35,102 +49,72 @@ public class GrassPokemon extends Pokemon {
      * @param chlorofylLevel the chlorofyl level to set
      */
     public void setChlorofylLevel(int chlorofylLevel) {
-        this.chlorofylLevel = Math.min(chlorofylLevel, maxChlorofylLevel);
+        setResourceLevel(chlorofylLevel);
     }
 
     @Override
-    public void eats() {
-        System.out.println(getName() + " eats " + getFood());
-        setChlorofylLevel(getChlorofylLevel() + 100);
-        setHp(getHp() + 30);
+    public int getMaxResourceLevel() {
+        return maxChlorofylLevel;
     }
 
-    /**
-     * Calculates the damage dealt to an opponent based on their type and the attack weight.
-     * The damage is influenced by a type multiplier and the chlorofyl level of the GrassPokemon.
-     *
-     * @param opponent the opponent Pokemon
-     * @param attackWeight the weight of the attack
-     * @return the calculated damage as an integer
-     */
-    public int damageCalculator(Pokemon opponent, double attackWeight) {
-        double multiplier = switch (opponent.getType()) {
-            case "water" -> 1.5;
-            case "electric" -> 2.5;
-            case "fire" -> 2.0;
-            case "grass" -> 1.2;
-            default -> 1.0;
-        };
+    @Override
+    public GrassPokemon copy() {
+        GrassPokemon copy = new GrassPokemon(getName(), getLevel(), getHp(), getFood(), getSound());
+        copy.setSpecies(getSpecies());
+        copy.setChlorofylLevel(getChlorofylLevel());
+        return copy;
+    }
 
-        return (int) (multiplier * calculateDamage(chlorofylLevel, maxChlorofylLevel) * attackWeight);
+    @Override
+    public void eats() {
+        if (isReporting(EventLevel.INFO)) {
+            report(EventLevel.INFO, getName() + " eats " + getFood());
+        }
+        changeResourceLevel(100);
+        addHp(30);
     }
 
     /**
      * Attacks the opponent Pokemon with Leaf Storm.
-     * The damage dealt is calculated based on the opponent's type and the attack weight.
-     * The chlorofyl level of the GrassPokemon is reduced by 100.
-     * If the GrassPokemon's HP is less than 100, it heals 30 HP.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param pokemon the GrassPokemon attacking
-     * @param enemy the opponent Pokemon
+     * @param pokemon the GrassPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
     public void leafStorm(Pokemon pokemon, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.5);
-        System.out.println(pokemon + " used Leaf Storm on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setChlorofylLevel(chlorofylLevel - 100);
-        // if the Pokemon's HP is less than 100, heal 30 HP
-        shouldHeal(30);
+        useMove(LEAF_STORM, enemy);
     }
 
     /**
      * Attacks the opponent Pokemon with Solar Beam.
-     * The damage dealt is calculated based on the opponent's type and the attack weight.
-     * The chlorofyl level of the GrassPokemon is reduced by 50.
-     * If the GrassPokemon's HP is less than 100, it heals 10 HP.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param pokemon the GrassPokemon attacking
-     * @param enemy the opponent Pokemon
+     * @param pokemon the GrassPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
     public void solarBeam(Pokemon pokemon, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(pokemon + " used Solar Beam on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setChlorofylLevel(chlorofylLevel - 50);
-        shouldHeal(10);
+        useMove(SOLAR_BEAM, enemy);
     }
 
     /**
      * Attacks the opponent Pokemon with Leech Seed.
-     * The damage dealt is calculated based on the opponent's type and the attack weight.
-     * The chlorofyl level of the GrassPokemon is reduced by 25.
-     * If the GrassPokemon's HP is less than 100, it heals 5 HP.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param pokemon the GrassPokemon attacking
-     * @param enemy the opponent Pokemon
+     * @param pokemon the GrassPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
     public void leechSeed(Pokemon pokemon, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 0.5);
-        System.out.println(pokemon + " used Leech Seed on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setChlorofylLevel(chlorofylLevel - 25);
-        shouldHeal(5);
+        useMove(LEECH_SEED, enemy);
     }
 
     /**
      * Attacks the opponent Pokemon with Leave Blade.
-     * The damage dealt is calculated based on the opponent's type and the attack weight.
-     * The chlorofyl level of the GrassPokemon is reduced by 50.
-     * If the GrassPokemon's HP is less than 100, it heals 15 HP.
+     * The weight, resource cost and heal of the attack are defined in moves.csv.
      *
-     * @param pokemon the GrassPokemon attacking
-     * @param enemy the opponent Pokemon
+     * @param pokemon the GrassPokemon that uses the attack
+     * @param enemy   the opponent Pokemon that receives the attack
      */
     public void leaveBlade(Pokemon pokemon, Pokemon enemy) {
-        int damage = damageCalculator(enemy, 1.0);
-        System.out.println(pokemon + " used Leave Blade on " + enemy + " and dealt " + damage + " damage!");
-        enemy.gotHit(damage);
-        setChlorofylLevel(chlorofylLevel - 50);
-        shouldHeal(15);
+        useMove(LEAVE_BLADE, enemy);
     }
 }
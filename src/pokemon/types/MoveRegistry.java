@@ -0,0 +1,245 @@
+package pokemon.types;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * All attacks in the game, read from a data file once when the class is loaded.
+ * <p>
+ * The attacks are defined in {@code moves.csv} next to this class, or in the file named by the system property
+ * {@value #MOVES_PROPERTY}, so attacks can be added or retuned without recompiling. When the classes are compiled
+ * without copying {@code moves.csv} next to them, as plain {@code javac} does, the file is read from the source tree
+ * at {@value #SOURCE_FILE} under the working directory instead, and if it is not there either loading this class
+ * fails with a message that says where to put it. Every attack gets a move id, its position in the file, and its
+ * weight, resource change and heal are compiled into flat arrays indexed by that id. Running an attack reads those
+ * arrays in {@link Pokemon#useMove(int, Pokemon)}, on the real attacking Pokemon, without creating any objects.
+ * The moves of each type are listed in the same order as {@link Pokemon#getAttacks()}.
+ */
+public final class MoveRegistry {
+    public static final String MOVES_PROPERTY = "pokemon.moves";
+
+    // where moves.csv sits in the source tree, relative to the project directory
+    private static final String SOURCE_FILE = "src/pokemon/types/moves.csv";
+
+    private static final String[] NAMES;
+    private static final int[] TYPE;
+    private static final double[] WEIGHT;
+    private static final int[] RESOURCE_DELTA;
+    private static final int[] HEAL;
+    // indexed by type ordinal
+    private static final int[][] MOVES_BY_TYPE;
+    private static final int[] BASIC_MOVE;
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static {
+        List<String[]> rows = readRows();
+        int count = rows.size();
+        NAMES = new String[count];
+        TYPE = new int[count];
+        WEIGHT = new double[count];
+        RESOURCE_DELTA = new int[count];
+        HEAL = new int[count];
+        int types = PokemonType.values().length;
+        int[] movesPerType = new int[types];
+        BASIC_MOVE = new int[types];
+        Arrays.fill(BASIC_MOVE, -1);
+
+        for (int move = 0; move < count; move++) {
+            String[] row = rows.get(move);
+            NAMES[move] = row[0];
+            TYPE[move] = PokemonType.fromName(row[1]).ordinal();
+            WEIGHT[move] = Double.parseDouble(row[2]);
+            RESOURCE_DELTA[move] = Integer.parseInt(row[3]);
+            HEAL[move] = Integer.parseInt(row[4]);
+            if (row[5].equalsIgnoreCase("yes")) {
+                BASIC_MOVE[TYPE[move]] = move;
+            }
+            movesPerType[TYPE[move]]++;
+            if (IDS.put(normalize(NAMES[move]), move) != null) {
+                throw new IllegalStateException("Move is defined twice: " + NAMES[move]);
+            }
+            IDS.put(NAMES[move], move);
+        }
+
+        MOVES_BY_TYPE = new int[types][];
+        for (int type = 0; type < types; type++) {
+            MOVES_BY_TYPE[type] = new int[movesPerType[type]];
+            if (movesPerType[type] == 0) {
+                throw new IllegalStateException("No moves defined for " + PokemonType.fromOrdinal(type));
+            }
+            if (BASIC_MOVE[type] < 0) {
+                throw new IllegalStateException("No basic move defined for " + PokemonType.fromOrdinal(type));
+            }
+        }
+        int[] filled = new int[types];
+        for (int move = 0; move < count; move++) {
+            MOVES_BY_TYPE[TYPE[move]][filled[TYPE[move]]++] = move;
+        }
+    }
+
+    private MoveRegistry() {
+    }
+
+    private static List<String[]> readRows() {
+        String file = System.getProperty(MOVES_PROPERTY);
+        if (file != null) {
+            try (BufferedReader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                return parseRows(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the move definitions from " + file + ", named by -D"
+                        + MOVES_PROPERTY, e);
+            }
+        }
+        InputStream in = MoveRegistry.class.getResourceAsStream("moves.csv");
+        if (in == null) {
+            Path source = Path.of(SOURCE_FILE);
+            if (!Files.isRegularFile(source)) {
+                throw new IllegalStateException("moves.csv was not found next to " + MoveRegistry.class.getName()
+                        + " on the class path, nor at " + source.toAbsolutePath() + ". Copy it next to the compiled"
+                        + " classes, run from the project directory or name it with -D" + MOVES_PROPERTY);
+            }
+            try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                return parseRows(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the move definitions from " + source, e);
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return parseRows(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the move definitions from moves.csv next to "
+                    + MoveRegistry.class.getName(), e);
+        }
+    }
+
+    private static List<String[]> parseRows(BufferedReader reader) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        boolean header = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            String[] row = line.split(",", -1);
+            if (row.length != 6) {
+                throw new IllegalStateException("Expected 6 columns in move definition: " + line);
+            }
+            for (int i = 0; i < row.length; i++) {
+                row[i] = row[i].strip();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String normalize(String name) {
+        return name.replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    public static int moveCount() {
+        return NAMES.length;
+    }
+
+    public static String nameOf(int move) {
+        return NAMES[move];
+    }
+
+    public static int typeOrdinalOf(int move) {
+        return TYPE[move];
+    }
+
+    public static double weightOf(int move) {
+        return WEIGHT[move];
+    }
+
+    public static int resourceDeltaOf(int move) {
+        return RESOURCE_DELTA[move];
+    }
+
+    public static int healOf(int move) {
+        return HEAL[move];
+    }
+
+    /**
+     * Finds a move by name. Exact names are found without creating any objects,
+     * otherwise case and spaces are ignored.
+     *
+     * @param name the name of the move, for example "Hydro Pump" or "hydropump"
+     * @return the move id, or -1 if there is no move with that name
+     */
+    public static int idOf(String name) {
+        Integer move = IDS.get(name);
+        if (move == null) {
+            move = IDS.get(normalize(name));
+        }
+        return move == null ? -1 : move;
+    }
+
+    /**
+     * Finds the move a Pokemon of the given type uses when the named attack is chosen.
+     * Names that are not one of the type's own attacks fall back to the type's basic attack.
+     *
+     * @param type the type of the attacking Pokemon
+     * @param name the chosen attack
+     * @return the move id
+     */
+    public static int idOf(PokemonType type, String name) {
+        int move = idOf(name);
+        if (move < 0 || TYPE[move] != type.ordinal()) {
+            return BASIC_MOVE[type.ordinal()];
+        }
+        return move;
+    }
+
+    /**
+     * Returns the number of moves a type has.
+     *
+     * @param typeOrdinal the ordinal of the type
+     * @return the number of moves
+     */
+    public static int movesOf(int typeOrdinal) {
+        return MOVES_BY_TYPE[typeOrdinal].length;
+    }
+
+    /**
+     * Returns one of the moves of a type.
+     *
+     * @param typeOrdinal the ordinal of the type
+     * @param index       the position of the move in the type's list of attacks
+     * @return the move id
+     */
+    public static int moveOf(int typeOrdinal, int index) {
+        return MOVES_BY_TYPE[typeOrdinal][index];
+    }
+
+    /**
+     * Lets the attacker use a move on the defender.
+     *
+     * @param move     the move id
+     * @param attacker the Pokemon that attacks
+     * @param defender the Pokemon that receives the attack
+     */
+    public static void execute(int move, Pokemon attacker, Pokemon defender) {
+        attacker.useMove(move, defender);
+    }
+}
@@ -0,0 +1,52 @@
+package pokemon.types;
+
+import pokemon.Pokemon;
+import pokemon.PokemonType;
+import pokemon.Species;
+
+/**
+ * Creates Pokemon of the right subclass for a {@link PokemonType}.
+ */
+public final class PokemonFactory {
+
+    private PokemonFactory() {
+    }
+
+    /**
+     * Creates a Pokemon of the given type.
+     *
+     * @param type  the type of the Pokemon
+     * @param name  the name of the Pokemon
+     * @param level the level of the Pokemon
+     * @param hp    the HP of the Pokemon
+     * @param food  the food the Pokemon likes
+     * @param sound the sound the Pokemon makes
+     * @return a new Pokemon of the subclass that belongs to the type
+     */
+    public static Pokemon create(PokemonType type, String name, int level, int hp, String food, String sound) {
+        return switch (type) {
+            case FIRE -> new FirePokemon(name, level, hp, food, sound);
+            case WATER -> new WaterPokemon(name, level, hp, food, sound);
+            case GRASS -> new GrassPokemon(name, level, hp, food, sound);
+            case ELECTRIC -> new ElectricPokemon(name, level, hp, food, sound);
+        };
+    }
+
+    /**
+     * Creates a Pokemon of the given species. Pokemon created from the same species share it.
+     *
+     * @param species the species of the Pokemon
+     * @param name    the name of the Pokemon
+     * @param level   the level of the Pokemon
+     * @param hp      the HP of the Pokemon
+     * @return a new Pokemon of the subclass that belongs to the type of the species
+     */
+    public static Pokemon create(Species species, String name, int level, int hp) {
+        return switch (species.getType()) {
+            case FIRE -> new FirePokemon(species, name, level, hp);
+            case WATER -> new WaterPokemon(species, name, level, hp);
+            case GRASS -> new GrassPokemon(species, name, level, hp);
+            case ELECTRIC -> new ElectricPokemon(species, name, level, hp);
+        };
+    }
+}